@@ -0,0 +1,211 @@
+package com.ewallet.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-by-column encoding of a block of rows. Each column starts with its
+ * null bitmap; longs and timestamps are delta encoded, strings dictionary
+ * encoded, so the deflated block stays small for sorted, repetitive rows.
+ */
+final class BlockCodec {
+
+    private BlockCodec() {
+    }
+
+    static byte[] encode(SegmentSchema schema, List<Object[]> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeVarLong(out, rows.size());
+        for (int column = 0; column < schema.size(); column++) {
+            BitSet nulls = new BitSet(rows.size());
+            for (int row = 0; row < rows.size(); row++) {
+                if (rows.get(row)[column] == null) {
+                    nulls.set(row);
+                }
+            }
+            byte[] bitmap = nulls.toByteArray();
+            writeVarLong(out, bitmap.length);
+            out.write(bitmap);
+            switch (schema.type(column)) {
+                case LONG, TIMESTAMP -> {
+                    long previous = 0;
+                    for (Object[] row : rows) {
+                        if (row[column] != null) {
+                            long value = toLong(schema.type(column), row[column]);
+                            writeVarLong(out, zigZag(value - previous));
+                            previous = value;
+                        }
+                    }
+                }
+                case STRING -> {
+                    Map<String, Integer> dictionary = new HashMap<>();
+                    ByteArrayOutputStream codes = new ByteArrayOutputStream();
+                    DataOutputStream codesOut = new DataOutputStream(codes);
+                    ByteArrayOutputStream words = new ByteArrayOutputStream();
+                    DataOutputStream wordsOut = new DataOutputStream(words);
+                    for (Object[] row : rows) {
+                        if (row[column] != null) {
+                            String value = (String) row[column];
+                            Integer code = dictionary.get(value);
+                            if (code == null) {
+                                code = dictionary.size();
+                                dictionary.put(value, code);
+                                writeString(wordsOut, value);
+                            }
+                            writeVarLong(codesOut, code);
+                        }
+                    }
+                    writeVarLong(out, dictionary.size());
+                    words.writeTo(out);
+                    codes.writeTo(out);
+                }
+                default -> {
+                    for (Object[] row : rows) {
+                        if (row[column] != null) {
+                            writeValue(out, schema.type(column), row[column]);
+                        }
+                    }
+                }
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static Object[][] decode(SegmentSchema schema, byte[] block) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(block));
+        int rowCount = (int) readVarLong(in);
+        Object[][] rows = new Object[rowCount][schema.size()];
+        for (int column = 0; column < schema.size(); column++) {
+            byte[] bitmap = new byte[(int) readVarLong(in)];
+            in.readFully(bitmap);
+            BitSet nulls = BitSet.valueOf(bitmap);
+            ColumnType type = schema.type(column);
+            switch (type) {
+                case LONG, TIMESTAMP -> {
+                    long previous = 0;
+                    for (int row = 0; row < rowCount; row++) {
+                        if (!nulls.get(row)) {
+                            previous += unZigZag(readVarLong(in));
+                            rows[row][column] = fromLong(type, previous);
+                        }
+                    }
+                }
+                case STRING -> {
+                    String[] dictionary = new String[(int) readVarLong(in)];
+                    for (int i = 0; i < dictionary.length; i++) {
+                        dictionary[i] = readString(in);
+                    }
+                    for (int row = 0; row < rowCount; row++) {
+                        if (!nulls.get(row)) {
+                            rows[row][column] = dictionary[(int) readVarLong(in)];
+                        }
+                    }
+                }
+                default -> {
+                    for (int row = 0; row < rowCount; row++) {
+                        if (!nulls.get(row)) {
+                            rows[row][column] = readValue(in, type);
+                        }
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    static void writeValue(DataOutput out, ColumnType type, Object value) throws IOException {
+        switch (type) {
+            case LONG, TIMESTAMP -> writeVarLong(out, zigZag(toLong(type, value)));
+            case STRING -> writeString(out, (String) value);
+            case DECIMAL -> {
+                BigDecimal decimal = (BigDecimal) value;
+                writeVarLong(out, zigZag(decimal.scale()));
+                byte[] unscaled = decimal.unscaledValue().toByteArray();
+                writeVarLong(out, unscaled.length);
+                out.write(unscaled);
+            }
+            case DOUBLE -> out.writeDouble((Double) value);
+        }
+    }
+
+    static Object readValue(DataInput in, ColumnType type) throws IOException {
+        return switch (type) {
+            case LONG, TIMESTAMP -> fromLong(type, unZigZag(readVarLong(in)));
+            case STRING -> readString(in);
+            case DECIMAL -> {
+                int scale = (int) unZigZag(readVarLong(in));
+                byte[] unscaled = new byte[(int) readVarLong(in)];
+                in.readFully(unscaled);
+                yield new BigDecimal(new BigInteger(unscaled), scale);
+            }
+            case DOUBLE -> in.readDouble();
+        };
+    }
+
+    private static long toLong(ColumnType type, Object value) {
+        if (type == ColumnType.TIMESTAMP) {
+            return ChronoUnit.MICROS.between(Instant.EPOCH, (Instant) value);
+        }
+        return (Long) value;
+    }
+
+    private static Object fromLong(ColumnType type, long value) {
+        return type == ColumnType.TIMESTAMP ? Instant.EPOCH.plus(value, ChronoUnit.MICROS) : (Object) value;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte[] utf8 = new byte[(int) readVarLong(in)];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,14 @@
+package com.ewallet.archive;
+
+/**
+ * Type of a segment column. Values are {@link Long}, {@link String},
+ * {@link java.math.BigDecimal}, {@link java.time.Instant} (stored to the
+ * microsecond) and {@link Double} respectively.
+ */
+public enum ColumnType {
+    LONG,
+    STRING,
+    DECIMAL,
+    TIMESTAMP,
+    DOUBLE
+}
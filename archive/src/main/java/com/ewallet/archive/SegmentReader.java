@@ -0,0 +1,261 @@
+package com.ewallet.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a segment written by {@link SegmentWriter}. The sparse index is loaded
+ * when the segment is opened; a scan seeks to the block that can hold its
+ * start key and inflates blocks one at a time from there. Readers are safe to
+ * share between threads.
+ */
+public final class SegmentReader implements Closeable {
+
+    record Block(long offset, int compressedLength, int length, int rows, Object[] firstKey) {
+    }
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private final SegmentSchema schema;
+
+    private final long rowCount;
+
+    private final List<Block> blocks;
+
+    private SegmentReader(Path path, FileChannel channel, SegmentSchema schema, long rowCount, List<Block> blocks) {
+        this.path = path;
+        this.channel = channel;
+        this.schema = schema;
+        this.rowCount = rowCount;
+        this.blocks = blocks;
+    }
+
+    public static SegmentReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            // header, footer
+            if (size < 5 + 12) {
+                throw new IOException("Not a complete segment: " + path);
+            }
+            ByteBuffer header = read(channel, 0, 5);
+            ByteBuffer footer = read(channel, size - 12, 12);
+            long indexOffset = footer.getLong();
+            if (header.getInt() != SegmentWriter.MAGIC || header.get() != SegmentWriter.VERSION
+                    || footer.getInt() != SegmentWriter.MAGIC || indexOffset < 5 || indexOffset > size - 12) {
+                throw new IOException("Not a complete segment: " + path);
+            }
+            DataInputStream index = new DataInputStream(new ByteArrayInputStream(
+                    read(channel, indexOffset, (int) (size - 12 - indexOffset)).array()));
+            try {
+                return readIndex(path, channel, index, indexOffset);
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt index in segment " + path, e);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Schema and sparse index; every block must lie between the header and the index.
+     */
+    private static SegmentReader readIndex(Path path, FileChannel channel, DataInputStream index, long indexOffset)
+            throws IOException {
+        List<SegmentSchema.Column> columns = new ArrayList<>();
+        long columnCount = BlockCodec.readVarLong(index);
+        for (int i = 0; i < columnCount; i++) {
+            String name = (String) BlockCodec.readValue(index, ColumnType.STRING);
+            columns.add(new SegmentSchema.Column(name, ColumnType.values()[index.readByte()]));
+        }
+        SegmentSchema schema = new SegmentSchema(columns, (int) BlockCodec.readVarLong(index));
+        long rowCount = BlockCodec.readVarLong(index);
+        int blockCount = (int) BlockCodec.readVarLong(index);
+        List<Block> blocks = new ArrayList<>(blockCount);
+        for (int i = 0; i < blockCount; i++) {
+            long offset = index.readLong();
+            int compressedLength = index.readInt();
+            int length = index.readInt();
+            int rows = index.readInt();
+            Object[] firstKey = new Object[schema.keyColumns()];
+            for (int column = 0; column < firstKey.length; column++) {
+                firstKey[column] = BlockCodec.readValue(index, schema.type(column));
+            }
+            if (offset < 5 || compressedLength < 0 || length < 0 || offset + compressedLength > indexOffset) {
+                throw new IOException("Block " + i + " is outside segment " + path);
+            }
+            blocks.add(new Block(offset, compressedLength, length, rows, firstKey));
+        }
+        return new SegmentReader(path, channel, schema, rowCount, List.copyOf(blocks));
+    }
+
+    public SegmentSchema schema() {
+        return schema;
+    }
+
+    public long rowCount() {
+        return rowCount;
+    }
+
+    public int blockCount() {
+        return blocks.size();
+    }
+
+    /**
+     * Rows whose key is at or after {@code fromKey}, in key order. The key may
+     * be a prefix of the key columns, e.g. just the account to read all of its
+     * rows; null or empty starts at the first row. Callers stop consuming once
+     * they are past the rows they want.
+     */
+    public Stream<Object[]> scan(Object... fromKey) {
+        Object[] key = fromKey == null ? new Object[0] : fromKey;
+        Iterator<Object[]> rows = new Iterator<>() {
+
+            private int block = firstBlock(key);
+
+            private Object[][] current = new Object[0][];
+
+            private int next;
+
+            private Object[] pending = advance();
+
+            @Override
+            public boolean hasNext() {
+                return pending != null;
+            }
+
+            @Override
+            public Object[] next() {
+                if (pending == null) {
+                    throw new NoSuchElementException();
+                }
+                Object[] row = pending;
+                pending = advance();
+                return row;
+            }
+
+            private Object[] advance() {
+                while (true) {
+                    while (next < current.length) {
+                        Object[] row = current[next++];
+                        if (compareKey(row, key) >= 0) {
+                            return row;
+                        }
+                    }
+                    if (block >= blocks.size()) {
+                        return null;
+                    }
+                    current = readBlock(blocks.get(block++));
+                    next = 0;
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return path.toString();
+    }
+
+    /**
+     * Last block whose first key is strictly before the key: rows equal to the
+     * key may end that block even when the next block starts with it.
+     */
+    private int firstBlock(Object[] key) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        int found = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compareKey(blocks.get(mid).firstKey(), key) < 0) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private Object[][] readBlock(Block block) {
+        try {
+            byte[] compressed = read(channel, block.offset(), block.compressedLength()).array();
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed);
+                // inflate to the end of the stream, so its checksum is verified; the spare
+                // byte catches a block longer than the index says
+                byte[] encoded = new byte[block.length() + 1];
+                int n = 0;
+                while (!inflater.finished()) {
+                    int inflated = inflater.inflate(encoded, n, encoded.length - n);
+                    if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary() || n == encoded.length)) {
+                        break;
+                    }
+                    n += inflated;
+                }
+                if (!inflater.finished() || n != block.length()) {
+                    throw new DataFormatException("Block does not inflate to " + block.length() + " bytes");
+                }
+                return BlockCodec.decode(schema, encoded);
+            } finally {
+                inflater.end();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read segment " + path, e);
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Corrupt block in segment " + path, e));
+        }
+    }
+
+    /**
+     * Compare the leading columns of a row (or key) with a key of up to as many columns.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compareKey(Object[] row, Object[] key) {
+        for (int i = 0; i < key.length; i++) {
+            int c = ((Comparable) row[i]).compareTo(key[i]);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of segment");
+            }
+        }
+        return buffer.flip();
+    }
+}
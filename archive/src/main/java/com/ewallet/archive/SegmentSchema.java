@@ -0,0 +1,36 @@
+package com.ewallet.archive;
+
+import java.util.List;
+
+/**
+ * Columns of a segment. Rows are sorted by the first {@code keyColumns}
+ * columns, which may not be null; the sparse index holds each block's first key.
+ */
+public record SegmentSchema(List<Column> columns, int keyColumns) {
+
+    public record Column(String name, ColumnType type) {
+    }
+
+    public SegmentSchema {
+        columns = List.copyOf(columns);
+        if (keyColumns < 1 || keyColumns > columns.size()) {
+            throw new IllegalArgumentException("keyColumns must be between 1 and " + columns.size());
+        }
+    }
+
+    public static SegmentSchema of(int keyColumns, Column... columns) {
+        return new SegmentSchema(List.of(columns), keyColumns);
+    }
+
+    public static Column column(String name, ColumnType type) {
+        return new Column(name, type);
+    }
+
+    public int size() {
+        return columns.size();
+    }
+
+    public ColumnType type(int column) {
+        return columns.get(column).type();
+    }
+}
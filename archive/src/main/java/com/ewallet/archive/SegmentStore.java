@@ -0,0 +1,70 @@
+package com.ewallet.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A directory of segment files. Readers are opened once per segment and
+ * kept, so each segment's sparse index is read from disk only once.
+ */
+public final class SegmentStore implements Closeable {
+
+    private final Path directory;
+
+    private final Map<String, SegmentReader> readers = new ConcurrentHashMap<>();
+
+    public SegmentStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    public SegmentWriter create(String name, SegmentSchema schema, int blockRows) throws IOException {
+        return new SegmentWriter(resolve(name), schema, blockRows);
+    }
+
+    public boolean exists(String name) {
+        return Files.exists(resolve(name));
+    }
+
+    public SegmentReader reader(String name) {
+        return readers.computeIfAbsent(name, n -> {
+            try {
+                return SegmentReader.open(resolve(n));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open segment " + n + " in " + directory, e);
+            }
+        });
+    }
+
+    public void delete(String name) throws IOException {
+        SegmentReader reader = readers.remove(name);
+        if (reader != null) {
+            reader.close();
+        }
+        Files.deleteIfExists(resolve(name));
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (SegmentReader reader : readers.values()) {
+            reader.close();
+        }
+        readers.clear();
+    }
+
+    private Path resolve(String name) {
+        Path path = directory.resolve(name);
+        if (!path.getParent().equals(directory)) {
+            throw new IllegalArgumentException("Not a segment name: " + name);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,170 @@
+package com.ewallet.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Writes one segment file. Rows must be appended in key order; they are cut
+ * into blocks of {@code blockRows}, and each block is encoded column by column
+ * and deflated. {@link #finish()} appends the sparse index (every block's
+ * offset and first key) and a footer, syncs the file and moves it into place,
+ * so a segment is either complete or absent. Closing an unfinished writer
+ * discards it.
+ * <pre>
+ * "EWSG" version block* index indexOffset:long "EWSG"
+ * </pre>
+ */
+public final class SegmentWriter implements Closeable {
+
+    static final int MAGIC = 0x45575347;
+
+    static final byte VERSION = 1;
+
+    private final Path target;
+
+    private final Path temp;
+
+    private final SegmentSchema schema;
+
+    private final int blockRows;
+
+    private final FileOutputStream file;
+
+    private final DataOutputStream out;
+
+    private final List<Object[]> pending = new ArrayList<>();
+
+    private final List<SegmentReader.Block> blocks = new ArrayList<>();
+
+    private final Deflater deflater = new Deflater();
+
+    private Object[] lastKey;
+
+    private long position;
+
+    private long rows;
+
+    private boolean finished;
+
+    SegmentWriter(Path target, SegmentSchema schema, int blockRows) throws IOException {
+        if (blockRows < 1) {
+            throw new IllegalArgumentException("blockRows must be positive");
+        }
+        this.target = target;
+        this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+        this.schema = schema;
+        this.blockRows = blockRows;
+        this.file = new FileOutputStream(temp.toFile());
+        this.out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        position = 5;
+    }
+
+    public void append(Object... row) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Segment " + target.getFileName() + " is already finished");
+        }
+        if (row.length != schema.size()) {
+            throw new IllegalArgumentException("Expected " + schema.size() + " values but got " + row.length);
+        }
+        Object[] key = Arrays.copyOf(row, schema.keyColumns());
+        for (Object value : key) {
+            if (value == null) {
+                throw new IllegalArgumentException("Key columns may not be null");
+            }
+        }
+        if (lastKey != null && SegmentReader.compareKey(key, lastKey) < 0) {
+            throw new IllegalArgumentException("Rows must be appended in key order: " + Arrays.toString(key)
+                    + " after " + Arrays.toString(lastKey));
+        }
+        lastKey = key;
+        pending.add(row.clone());
+        rows++;
+        if (pending.size() == blockRows) {
+            writeBlock();
+        }
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * Complete the segment and make it visible under its name. Returns the
+     * size of the file in bytes.
+     */
+    public long finish() throws IOException {
+        if (!pending.isEmpty()) {
+            writeBlock();
+        }
+        long indexOffset = position;
+        ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        DataOutputStream index = new DataOutputStream(indexBytes);
+        BlockCodec.writeVarLong(index, schema.size());
+        for (SegmentSchema.Column column : schema.columns()) {
+            BlockCodec.writeValue(index, ColumnType.STRING, column.name());
+            index.writeByte(column.type().ordinal());
+        }
+        BlockCodec.writeVarLong(index, schema.keyColumns());
+        BlockCodec.writeVarLong(index, rows);
+        BlockCodec.writeVarLong(index, blocks.size());
+        for (SegmentReader.Block block : blocks) {
+            index.writeLong(block.offset());
+            index.writeInt(block.compressedLength());
+            index.writeInt(block.length());
+            index.writeInt(block.rows());
+            for (int column = 0; column < schema.keyColumns(); column++) {
+                BlockCodec.writeValue(index, schema.type(column), block.firstKey()[column]);
+            }
+        }
+        index.flush();
+        indexBytes.writeTo(out);
+        out.writeLong(indexOffset);
+        out.writeInt(MAGIC);
+        out.flush();
+        file.getChannel().force(true);
+        out.close();
+        finished = true;
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return Files.size(target);
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        if (!finished) {
+            out.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        byte[] encoded = BlockCodec.encode(schema, pending);
+        deflater.reset();
+        deflater.setInput(encoded);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(encoded.length / 4 + 64);
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buffer);
+            compressed.write(buffer, 0, n);
+        }
+        blocks.add(new SegmentReader.Block(position, compressed.size(), encoded.length, pending.size(),
+                Arrays.copyOf(pending.get(0), schema.keyColumns())));
+        compressed.writeTo(out);
+        position += compressed.size();
+        pending.clear();
+    }
+}
@@ -0,0 +1,69 @@
+package com.ewallet.archive;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.ewallet.archive.SegmentSchema.column;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlockCodecTest {
+
+    private static final SegmentSchema SCHEMA = SegmentSchema.of(1,
+            column("id", ColumnType.LONG),
+            column("account", ColumnType.STRING),
+            column("amount", ColumnType.DECIMAL),
+            column("created", ColumnType.TIMESTAMP),
+            column("rate", ColumnType.DOUBLE));
+
+    @Test
+    void everyColumnTypeRoundTrips() throws IOException {
+        List<Object[]> rows = List.of(
+                new Object[]{Long.MIN_VALUE, "ACC1", new BigDecimal("-12.50"), Instant.EPOCH.minusSeconds(1), -0.5},
+                new Object[]{0L, "ACC1", new BigDecimal("0"), Instant.parse("2024-02-29T23:59:59.123456Z"), 0.0},
+                new Object[]{42L, "", new BigDecimal("123456789012345678901234567890.0001"),
+                        Instant.parse("2024-01-01T00:00:00Z"), Double.NaN},
+                new Object[]{Long.MAX_VALUE, "Zürich ✓", new BigDecimal("1E+3"),
+                        Instant.parse("2262-04-11T23:47:16.854775Z"), Double.MAX_VALUE});
+
+        assertRows(BlockCodec.decode(SCHEMA, BlockCodec.encode(SCHEMA, rows)), rows);
+    }
+
+    @Test
+    void nullsAreKeptPerColumn() throws IOException {
+        List<Object[]> rows = new ArrayList<>();
+        for (long i = 0; i < 20; i++) {
+            rows.add(new Object[]{i, i % 2 == 0 ? null : "ACC" + (i % 3), i % 3 == 0 ? null : BigDecimal.valueOf(i, 2),
+                    i % 4 == 0 ? null : Instant.ofEpochSecond(1_700_000_000L - i * 7), i % 5 == 0 ? null : i / 4.0});
+        }
+
+        assertRows(BlockCodec.decode(SCHEMA, BlockCodec.encode(SCHEMA, rows)), rows);
+    }
+
+    @Test
+    void timestampsAreStoredToTheMicrosecond() throws IOException {
+        List<Object[]> rows = List.<Object[]>of(
+                new Object[]{1L, "ACC1", BigDecimal.ONE, Instant.parse("2024-01-01T00:00:00.123456789Z"), 1.0});
+
+        Object[][] decoded = BlockCodec.decode(SCHEMA, BlockCodec.encode(SCHEMA, rows));
+
+        assertThat(decoded[0][3]).isEqualTo(Instant.parse("2024-01-01T00:00:00.123456Z"));
+    }
+
+    @Test
+    void emptyBlockRoundTrips() throws IOException {
+        assertThat(BlockCodec.decode(SCHEMA, BlockCodec.encode(SCHEMA, List.of()))).isEmpty();
+    }
+
+    private static void assertRows(Object[][] decoded, List<Object[]> expected) {
+        assertThat(decoded.length).isEqualTo(expected.size());
+        for (int i = 0; i < decoded.length; i++) {
+            assertThat(decoded[i]).as("row %d: %s", i, Arrays.toString(decoded[i])).containsExactly(expected.get(i));
+        }
+    }
+}
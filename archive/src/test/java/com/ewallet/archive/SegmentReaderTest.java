@@ -0,0 +1,273 @@
+package com.ewallet.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.ewallet.archive.SegmentSchema.column;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentReaderTest {
+
+    // keyed like the wallet journal: account, created, id
+    private static final SegmentSchema SCHEMA = SegmentSchema.of(3,
+            column("account", ColumnType.STRING),
+            column("created", ColumnType.TIMESTAMP),
+            column("id", ColumnType.LONG),
+            column("amount", ColumnType.DECIMAL),
+            column("rate", ColumnType.DOUBLE));
+
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    private static final int ACCOUNTS = 5;
+
+    private static final int ROWS_PER_ACCOUNT = 23;
+
+    private static final int BLOCK_ROWS = 10;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeThenReadEveryRow() throws IOException {
+        List<Object[]> rows = rows();
+        Path segment = write("all", rows);
+
+        try (SegmentReader reader = SegmentReader.open(segment)) {
+            assertThat(reader.schema()).isEqualTo(SCHEMA);
+            assertThat(reader.rowCount()).isEqualTo(rows.size());
+            assertThat(reader.blockCount()).isEqualTo((rows.size() + BLOCK_ROWS - 1) / BLOCK_ROWS);
+            assertThat(scan(reader)).containsExactlyElementsOf(rows);
+            assertThat(scan(reader, (Object[]) null)).containsExactlyElementsOf(rows);
+        }
+    }
+
+    @Test
+    void scanByAccountPrefixCrossesBlocks() throws IOException {
+        List<Object[]> rows = rows();
+        try (SegmentReader reader = SegmentReader.open(write("prefix", rows))) {
+            for (int account = 0; account < ACCOUNTS; account++) {
+                String name = account(account);
+                List<Object[]> expected = rows.stream().filter(row -> row[0].equals(name)).toList();
+
+                List<Object[]> scanned;
+                try (Stream<Object[]> stream = reader.scan(name)) {
+                    scanned = stream.takeWhile(row -> row[0].equals(name)).toList();
+                }
+
+                assertThat(scanned).as(name).containsExactlyElementsOf(expected);
+            }
+        }
+    }
+
+    @Test
+    void scanFromFullKeyStartsAtThatRow() throws IOException {
+        List<Object[]> rows = rows();
+        try (SegmentReader reader = SegmentReader.open(write("full", rows))) {
+            // every position, so starts land on block boundaries as well as inside blocks
+            for (int i = 0; i < rows.size(); i++) {
+                Object[] key = {rows.get(i)[0], rows.get(i)[1], rows.get(i)[2]};
+
+                assertThat(scan(reader, key)).as("from row %d", i).containsExactlyElementsOf(rows.subList(i, rows.size()));
+            }
+        }
+    }
+
+    @Test
+    void scanFromKeyBetweenRowsStartsAtTheNextRow() throws IOException {
+        List<Object[]> rows = rows();
+        try (SegmentReader reader = SegmentReader.open(write("between", rows))) {
+            // rows of an account are a second apart, so half a second lands between two of them
+            Object[] key = {account(2), START.plusSeconds(10).plusMillis(500)};
+            int next = 2 * ROWS_PER_ACCOUNT + 11;
+
+            assertThat(scan(reader, key)).containsExactlyElementsOf(rows.subList(next, rows.size()));
+            assertThat(scan(reader, "ACC9")).isEmpty();
+            assertThat(scan(reader, "A")).containsExactlyElementsOf(rows);
+        }
+    }
+
+    @Test
+    void equalKeysSpanningBlocksAreAllFound() throws IOException {
+        // 25 rows sharing the account and time straddle three blocks
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 0; id < 25; id++) {
+            rows.add(new Object[]{"ACC1", START, id, BigDecimal.ONE, 1.0});
+        }
+        rows.add(new Object[]{"ACC2", START, 0L, BigDecimal.TEN, 1.0});
+
+        try (SegmentReader reader = SegmentReader.open(write("equal", rows))) {
+            assertThat(scan(reader, "ACC1", START)).containsExactlyElementsOf(rows);
+            assertThat(scan(reader, "ACC1", START, 20L)).containsExactlyElementsOf(rows.subList(20, rows.size()));
+            assertThat(scan(reader, "ACC2")).containsExactlyElementsOf(rows.subList(25, rows.size()));
+        }
+    }
+
+    @Test
+    void emptySegmentHasNoRows() throws IOException {
+        try (SegmentReader reader = SegmentReader.open(write("empty", List.of()))) {
+            assertThat(reader.rowCount()).isZero();
+            assertThat(reader.blockCount()).isZero();
+            assertThat(scan(reader)).isEmpty();
+            assertThat(scan(reader, "ACC1")).isEmpty();
+        }
+    }
+
+    @Test
+    void rowsOutOfKeyOrderAreRejected() throws IOException {
+        try (SegmentWriter writer = new SegmentWriter(directory.resolve("order"), SCHEMA, BLOCK_ROWS)) {
+            writer.append("ACC2", START, 1L, BigDecimal.ONE, 1.0);
+
+            assertThatThrownBy(() -> writer.append("ACC1", START, 2L, BigDecimal.ONE, 1.0))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> writer.append(null, START, 3L, BigDecimal.ONE, 1.0))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void unfinishedSegmentIsNotVisible() throws IOException {
+        Path segment = directory.resolve("unfinished");
+        try (SegmentWriter writer = new SegmentWriter(segment, SCHEMA, BLOCK_ROWS)) {
+            writer.append("ACC1", START, 1L, BigDecimal.ONE, 1.0);
+        }
+
+        assertThat(segment).doesNotExist();
+        assertThat(directory.resolve("unfinished.tmp")).doesNotExist();
+    }
+
+    @Test
+    void truncatedSegmentIsRejected() throws IOException {
+        Path segment = write("truncated", rows());
+        long size = Files.size(segment);
+
+        for (long length : new long[]{0, 4, 11, 16, size / 2, size - 1}) {
+            Path copy = directory.resolve("truncated-" + length);
+            try (RandomAccessFile file = new RandomAccessFile(copy.toFile(), "rw")) {
+                file.write(Files.readAllBytes(segment), 0, (int) length);
+            }
+
+            assertThatThrownBy(() -> SegmentReader.open(copy).close())
+                    .as("%d of %d bytes", length, size)
+                    .isInstanceOf(IOException.class);
+        }
+    }
+
+    @Test
+    void corruptIndexIsRejected() throws IOException {
+        Path segment = write("index", rows());
+        long size = Files.size(segment);
+        long indexOffset;
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "r")) {
+            file.seek(size - 12);
+            indexOffset = file.readLong();
+        }
+
+        // the column count and types at the start of the index
+        overwrite(segment, indexOffset, (byte) 0x7F, (byte) 0x7F, (byte) 0x7F, (byte) 0x7F, (byte) 0x7F);
+
+        assertThatThrownBy(() -> SegmentReader.open(segment).close()).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void corruptBlockFailsTheScan() throws IOException {
+        Path segment = write("block", rows());
+        // inside the first block's deflate stream
+        overwrite(segment, 12, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF);
+
+        try (SegmentReader reader = SegmentReader.open(segment)) {
+            assertThatThrownBy(() -> scan(reader)).isInstanceOf(UncheckedIOException.class);
+        }
+    }
+
+    @Test
+    void blockOfTheWrongLengthFailsTheScan() throws IOException {
+        Path segment = write("length", rows());
+        long size = Files.size(segment);
+        long indexOffset;
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "r")) {
+            file.seek(size - 12);
+            indexOffset = file.readLong();
+        }
+        // first block entry: after the column count, the column names and types, keyColumns,
+        // rowCount and blockCount come offset:long compressedLength:int length:int
+        long lengthField;
+        try (SegmentReader reader = SegmentReader.open(segment)) {
+            int schemaBytes = 1 + 3 + SCHEMA.columns().stream().mapToInt(column -> 1 + column.name().length() + 1).sum();
+            lengthField = indexOffset + schemaBytes + 8 + 4;
+            assertThat(reader.blockCount()).isGreaterThan(1);
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(lengthField);
+            int length = file.readInt();
+            file.seek(lengthField);
+            file.writeInt(length - 1);
+        }
+
+        try (SegmentReader reader = SegmentReader.open(segment)) {
+            assertThatThrownBy(() -> scan(reader)).isInstanceOf(UncheckedIOException.class);
+        }
+    }
+
+    @Test
+    void foreignFileIsRejected() throws IOException {
+        Path file = directory.resolve("foreign");
+        Files.write(file, new byte[64]);
+
+        assertThatThrownBy(() -> SegmentReader.open(file).close()).isInstanceOf(IOException.class);
+    }
+
+    private Path write(String name, List<Object[]> rows) throws IOException {
+        Path segment = directory.resolve(name);
+        try (SegmentWriter writer = new SegmentWriter(segment, SCHEMA, BLOCK_ROWS)) {
+            for (Object[] row : rows) {
+                writer.append(row);
+            }
+            writer.finish();
+        }
+        return segment;
+    }
+
+    private static List<Object[]> scan(SegmentReader reader, Object... fromKey) {
+        try (Stream<Object[]> rows = reader.scan(fromKey)) {
+            return rows.toList();
+        }
+    }
+
+    private static void overwrite(Path segment, long position, byte... bytes) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(position);
+            file.write(bytes);
+        }
+    }
+
+    /**
+     * ACCOUNTS accounts of ROWS_PER_ACCOUNT rows, one second apart, in key order.
+     */
+    private static List<Object[]> rows() {
+        List<Object[]> rows = new ArrayList<>();
+        long id = 0;
+        for (int account = 0; account < ACCOUNTS; account++) {
+            for (int i = 0; i < ROWS_PER_ACCOUNT; i++) {
+                rows.add(new Object[]{account(account), START.plusSeconds(i), id++,
+                        BigDecimal.valueOf(i * 125L, 2), i % 7 == 0 ? null : i / 3.0});
+            }
+        }
+        return rows;
+    }
+
+    private static String account(int account) {
+        return "ACC" + account;
+    }
+}
@@ -0,0 +1,96 @@
+package com.ewallet.benchmarks;
+
+import com.ewallet.payment.Payment;
+import com.ewallet.wallet.WalletApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Starts the wallet and payment application contexts on an embedded H2 database
+ * in PostgreSQL mode, so benchmarks exercise the real services, repositories and
+ * Hibernate mappings without external processes.
+ */
+public final class BenchmarkContexts {
+
+    private BenchmarkContexts() {
+    }
+
+    public static ConfigurableApplicationContext wallet() {
+        return wallet(Map.of());
+    }
+
+    public static ConfigurableApplicationContext wallet(Map<String, Object> overrides) {
+        Map<String, Object> properties = common("bench_wallet");
+        properties.put("wallet.balance.backfill-on-startup", "false");
+        properties.put("wallet.checkpoint.interval-ms", String.valueOf(Integer.MAX_VALUE));
+        properties.put("wallet.sharded-accounts.sweep-interval-ms", String.valueOf(Integer.MAX_VALUE));
+        properties.putAll(overrides);
+        return start(WalletApplication.class, properties, WebApplicationType.NONE);
+    }
+
+    public static ConfigurableApplicationContext payment() {
+        return payment(Map.of());
+    }
+
+    public static ConfigurableApplicationContext payment(Map<String, Object> overrides) {
+        Map<String, Object> properties = common("bench_payment");
+        // nothing listens on these, benchmarks never reach the downstream services
+        properties.put("payment.http.wallet.base-url", "http://localhost:1");
+        properties.put("payment.http.notification.base-url", "http://localhost:1");
+        properties.put("payment.outbox.relay-interval-ms", String.valueOf(Integer.MAX_VALUE));
+        properties.put("payment.saga.recovery-interval-ms", String.valueOf(Integer.MAX_VALUE));
+        properties.putAll(overrides);
+        return start(Payment.class, properties, WebApplicationType.NONE);
+    }
+
+    /**
+     * Payment serving HTTP on a random port (see {@code local.server.port}) and
+     * calling the given downstream URLs. {@code overrides} are applied last.
+     */
+    public static ConfigurableApplicationContext paymentServer(String walletUrl, String notificationUrl,
+                                                               Map<String, Object> overrides) {
+        Map<String, Object> properties = common("load_payment");
+        properties.put("server.port", "0");
+        properties.put("payment.http.wallet.base-url", walletUrl);
+        properties.put("payment.http.notification.base-url", notificationUrl);
+        properties.putAll(overrides);
+        return start(Payment.class, properties, WebApplicationType.SERVLET);
+    }
+
+    private static Map<String, Object> common(String database) {
+        Map<String, Object> properties = new HashMap<>();
+        // the service jars both ship an application.properties pointing at PostgreSQL; skip them
+        properties.put("spring.config.name", "benchmark");
+        properties.put("spring.datasource.url",
+                "jdbc:h2:mem:" + database + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create");
+        properties.put("spring.flyway.enabled", "false");
+        // same batching as the services' application.properties
+        properties.put("spring.jpa.properties.hibernate.jdbc.batch_size", "50");
+        properties.put("spring.jpa.properties.hibernate.order_inserts", "true");
+        properties.put("spring.jpa.properties.hibernate.order_updates", "true");
+        // rate limit tiers are only configured in the services' application.properties, and the
+        // load test sends every payment to one merchant
+        properties.put("wallet.rate-limit.enabled", "false");
+        properties.put("payment.rate-limit.enabled", "false");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        return properties;
+    }
+
+    private static ConfigurableApplicationContext start(Class<?> application, Map<String, Object> properties,
+                                                        WebApplicationType webApplicationType) {
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+        return new SpringApplicationBuilder(application)
+                .web(webApplicationType)
+                .properties(properties)
+                .run();
+    }
+}
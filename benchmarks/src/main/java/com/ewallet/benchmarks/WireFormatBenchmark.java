@@ -0,0 +1,89 @@
+package com.ewallet.benchmarks;
+
+import com.ewallet.payment.dto.BalanceResponse;
+import com.ewallet.payment.dto.PostingLeg;
+import com.ewallet.payment.dto.PostingRequest;
+import com.ewallet.wallet.dto.BatchPostingRequestDTO;
+import com.ewallet.wallet.dto.UserBalanceDTO;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Both ends of the payment to wallet calls in each wire format: payment writing
+ * the posting request and the wallet reading it, the wallet writing a balance
+ * and payment reading it. Body sizes are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "cbor"})
+    String format;
+
+    private ObjectMapper mapper;
+
+    private PostingRequest posting;
+
+    private byte[] postingBytes;
+
+    private UserBalanceDTO balance;
+
+    private byte[] balanceBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        mapper = "cbor".equals(format) ? new CBORMapper() : new ObjectMapper();
+        // as Spring Boot configures it; the wallet's walletAccNo has no counterpart in BalanceResponse
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        posting = new PostingRequest(UUID.randomUUID().toString(), List.of(
+                new PostingLeg("1", PostingLeg.DEBIT, new BigDecimal("1234.57")),
+                new PostingLeg("2", PostingLeg.CREDIT, new BigDecimal("1209.88")),
+                new PostingLeg("1234567890", PostingLeg.CREDIT, new BigDecimal("24.69"))));
+        postingBytes = mapper.writeValueAsBytes(posting);
+        balance = new UserBalanceDTO("1", "ACC1", new BigDecimal("100000.00"), "INR");
+        balanceBytes = mapper.writeValueAsBytes(balance);
+        System.out.printf("%n%s: posting request %d bytes, balance response %d bytes%n",
+                format, postingBytes.length, balanceBytes.length);
+    }
+
+    @Benchmark
+    public byte[] writePostingRequest() throws Exception {
+        return mapper.writeValueAsBytes(posting);
+    }
+
+    @Benchmark
+    public BatchPostingRequestDTO readPostingRequest() throws Exception {
+        return mapper.readValue(postingBytes, BatchPostingRequestDTO.class);
+    }
+
+    @Benchmark
+    public byte[] writeBalanceResponse() throws Exception {
+        return mapper.writeValueAsBytes(balance);
+    }
+
+    @Benchmark
+    public BalanceResponse readBalanceResponse() throws Exception {
+        return mapper.readValue(balanceBytes, BalanceResponse.class);
+    }
+}
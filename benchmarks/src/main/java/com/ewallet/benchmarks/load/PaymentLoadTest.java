@@ -0,0 +1,249 @@
+package com.ewallet.benchmarks.load;
+
+import com.ewallet.benchmarks.BenchmarkContexts;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load test for {@code POST /api/v1/payment/process}. Boots payment
+ * on an embedded database against in-process wallet and notification stubs
+ * with injected latency and error rates, drives it from {@code concurrency}
+ * clients and reports throughput and latency percentiles.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.ewallet.benchmarks.load.PaymentLoadTest \
+ *     --concurrency=64 --duration=30s --wallet-latency=20ms --wallet-error-rate=0.01
+ * </pre>
+ *
+ * Any other {@code --name=value} containing a dot is passed to payment as a
+ * property, e.g. {@code --server.tomcat.threads.max=400}.
+ */
+public class PaymentLoadTest {
+
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry("concurrency", "64"),
+            Map.entry("duration", "30s"),
+            Map.entry("warmup", "10s"),
+            Map.entry("report-interval", "5s"),
+            Map.entry("customers", "1000"),
+            Map.entry("amount", "100.00"),
+            Map.entry("wallet-latency", "5ms"),
+            Map.entry("wallet-jitter", "0ms"),
+            Map.entry("wallet-error-rate", "0"),
+            Map.entry("notification-latency", "2ms"),
+            Map.entry("notification-jitter", "0ms"),
+            Map.entry("notification-error-rate", "0"),
+            Map.entry("virtual-threads", "false"),
+            Map.entry("hgrm", ""));
+
+    private static final PrintStream out = System.out;
+
+    private final Map<String, String> options;
+
+    private final Recorder latency = new Recorder(3);
+
+    private final LongAdder succeeded = new LongAdder();
+
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private volatile boolean running = true;
+
+    PaymentLoadTest(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        Map<String, Object> paymentProperties = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (DEFAULTS.containsKey(name)) {
+                options.put(name, value);
+            } else if (name.contains(".")) {
+                paymentProperties.put(name, value);
+            } else {
+                throw new IllegalArgumentException("Unknown option --" + name + ", known: " + DEFAULTS.keySet());
+            }
+        }
+        paymentProperties.put("spring.threads.virtual.enabled", options.get("virtual-threads"));
+        // failures are counted per status below; pass --logging.level.root=WARN to see payment's own logs
+        paymentProperties.putIfAbsent("logging.level.root", "OFF");
+
+        new PaymentLoadTest(options).run(paymentProperties);
+    }
+
+    void run(Map<String, Object> paymentProperties) throws Exception {
+        try (StubService wallet = StubService.wallet(behaviour("wallet"), "1000000000.00", "INR");
+             StubService notification = StubService.notification(behaviour("notification"));
+             ConfigurableApplicationContext payment = BenchmarkContexts.paymentServer(
+                     wallet.baseUrl(), notification.baseUrl(), paymentProperties)) {
+
+            int port = payment.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            URI target = URI.create("http://127.0.0.1:" + port + "/api/v1/payment/process");
+            int concurrency = Integer.parseInt(options.get("concurrency"));
+            out.printf("Payment on port %d, wallet stub %s, notification stub %s, %d clients, virtual threads %s%n",
+                    port, behaviour("wallet"), behaviour("notification"), concurrency, options.get("virtual-threads"));
+
+            List<Thread> clients = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                Thread thread = new Thread(() -> drive(target), "load-client-" + i);
+                thread.setDaemon(true);
+                thread.start();
+                clients.add(thread);
+            }
+
+            Duration warmup = duration("warmup");
+            if (!warmup.isZero()) {
+                out.printf("Warming up for %s%n", warmup);
+                Thread.sleep(warmup.toMillis());
+            }
+            latency.reset();
+            succeeded.reset();
+            failures.clear();
+            wallet.resetCounters();
+            notification.resetCounters();
+
+            Histogram total = measure(duration("duration"), duration("report-interval"));
+
+            running = false;
+            for (Thread thread : clients) {
+                thread.join(TimeUnit.SECONDS.toMillis(30));
+            }
+            report(total, duration("duration"), wallet, notification);
+        }
+    }
+
+    private void drive(URI target) {
+        int customers = Integer.parseInt(options.get("customers"));
+        String amount = options.get("amount");
+        while (running) {
+            long customerId = ThreadLocalRandom.current().nextLong(1, customers + 1);
+            String body = """
+                    {"customerId":%d,"merchantAccountNo":%d,"amount":%s,"productCurrency":"INR"}"""
+                    .formatted(customerId, customers + 1, amount);
+            HttpRequest request = HttpRequest.newBuilder(target)
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            long start = System.nanoTime();
+            String failure;
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                failure = response.statusCode() == 200 ? null : "HTTP " + response.statusCode();
+            } catch (IOException e) {
+                failure = e.getClass().getSimpleName();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (failure == null) {
+                latency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                succeeded.increment();
+            } else {
+                failures.computeIfAbsent(failure, f -> new LongAdder()).increment();
+            }
+        }
+    }
+
+    private Histogram measure(Duration duration, Duration interval) throws InterruptedException {
+        Histogram total = new Histogram(3);
+        long deadline = System.nanoTime() + duration.toNanos();
+        long lastSucceeded = 0;
+        long lastFailed = 0;
+        Histogram intervalHistogram = null;
+        out.printf("%8s %12s %12s %10s %10s %10s%n", "elapsed", "ok/s", "failed/s", "p50 ms", "p99 ms", "max ms");
+        long started = System.nanoTime();
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(Math.min(interval.toMillis(), TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) + 1));
+            intervalHistogram = latency.getIntervalHistogram(intervalHistogram);
+            total.add(intervalHistogram);
+            long ok = succeeded.sum();
+            long failed = failedCount();
+            double seconds = (intervalHistogram.getEndTimeStamp() - intervalHistogram.getStartTimeStamp()) / 1000.0;
+            out.printf("%7ds %12.1f %12.1f %10.2f %10.2f %10.2f%n",
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started),
+                    (ok - lastSucceeded) / seconds, (failed - lastFailed) / seconds,
+                    millis(intervalHistogram.getValueAtPercentile(50)),
+                    millis(intervalHistogram.getValueAtPercentile(99)),
+                    millis(intervalHistogram.getMaxValue()));
+            lastSucceeded = ok;
+            lastFailed = failed;
+        }
+        return total;
+    }
+
+    private void report(Histogram total, Duration duration, StubService... stubs) throws IOException {
+        double seconds = duration.toMillis() / 1000.0;
+        out.println();
+        out.printf("Succeeded  %d (%.1f/s)%n", succeeded.sum(), succeeded.sum() / seconds);
+        out.printf("Failed     %d (%.1f/s)%n", failedCount(), failedCount() / seconds);
+        new TreeMap<>(failures).forEach((failure, count) -> out.printf("  %-24s %d%n", failure, count.sum()));
+        if (total.getTotalCount() > 0) {
+            out.printf("Latency of successful payments (ms): p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+                    millis(total.getValueAtPercentile(50)), millis(total.getValueAtPercentile(90)),
+                    millis(total.getValueAtPercentile(99)), millis(total.getValueAtPercentile(99.9)),
+                    millis(total.getMaxValue()));
+        }
+        for (StubService stub : stubs) {
+            out.printf("%-13s stub: %d requests (%.1f/s), %d injected failures%n",
+                    stub.name(), stub.requests(), stub.requests() / seconds, stub.injectedErrors());
+        }
+
+        String hgrm = options.get("hgrm");
+        if (!hgrm.isEmpty()) {
+            try (PrintStream file = new PrintStream(Files.newOutputStream(Path.of(hgrm)))) {
+                // values are in microseconds, scale to milliseconds for HdrHistogram plotters
+                total.outputPercentileDistribution(file, 1000.0);
+            }
+            out.printf("Latency distribution written to %s%n", hgrm);
+        }
+    }
+
+    private long failedCount() {
+        return failures.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    private StubService.Behaviour behaviour(String service) {
+        return new StubService.Behaviour(duration(service + "-latency"), duration(service + "-jitter"),
+                Double.parseDouble(options.get(service + "-error-rate")));
+    }
+
+    private Duration duration(String option) {
+        return DurationStyle.detectAndParse(options.get(option));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,149 @@
+package com.ewallet.benchmarks.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * In-process stand-in for a downstream service, answering a fixed set of paths
+ * with canned responses after an injected delay and failing a configurable
+ * share of requests with a 500.
+ */
+public class StubService implements AutoCloseable {
+
+    /**
+     * Injected behaviour: every response waits {@code latency} plus a uniform
+     * random {@code jitter}, and {@code errorRate} (0..1) of them are 500s.
+     */
+    public record Behaviour(Duration latency, Duration jitter, double errorRate) {
+    }
+
+    private final String name;
+
+    private final Behaviour behaviour;
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder injectedErrors = new LongAdder();
+
+    private StubService(String name, Behaviour behaviour) throws IOException {
+        this.name = name;
+        this.behaviour = behaviour;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        // one thread per in-flight request so injected latency never queues behind other requests
+        this.executor = Executors.newCachedThreadPool();
+        this.server.setExecutor(executor);
+    }
+
+    /**
+     * Wallet endpoints used by payment: every customer has {@code balance} in {@code currency}
+     * and every batch posting succeeds.
+     */
+    public static StubService wallet(Behaviour behaviour, String balance, String currency) throws IOException {
+        StubService stub = new StubService("wallet", behaviour);
+        stub.respond("/api/v1/check-balance/", "application/json", id -> """
+                {"userId":"%s","walletAccNo":"ACC%s","balance":%s,"currency":"%s"}""".formatted(id, id, balance, currency));
+        stub.respond("/api/v1/batch", "text/plain", path -> "Batch posted successfully");
+        stub.server.start();
+        return stub;
+    }
+
+    public static StubService notification(Behaviour behaviour) throws IOException {
+        StubService stub = new StubService("notification", behaviour);
+        stub.respond("/notifications/send-batch", "text/plain", path -> "Notifications queued");
+        stub.respond("/notifications/send", "text/plain", path -> "Notification queued");
+        stub.server.start();
+        return stub;
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    public long injectedErrors() {
+        return injectedErrors.sum();
+    }
+
+    public void resetCounters() {
+        requests.reset();
+        injectedErrors.reset();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Answer requests under {@code prefix}; the body is built from the rest of the path.
+     */
+    private void respond(String prefix, String contentType, Function<String, String> body) {
+        server.createContext(prefix, exchange -> {
+            try {
+                requests.increment();
+                drain(exchange.getRequestBody());
+                delay();
+                if (ThreadLocalRandom.current().nextDouble() < behaviour.errorRate()) {
+                    injectedErrors.increment();
+                    send(exchange, 500, "text/plain", "Injected failure");
+                } else {
+                    String rest = exchange.getRequestURI().getPath().substring(prefix.length());
+                    send(exchange, 200, contentType, body.apply(rest));
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+    }
+
+    private void delay() {
+        long nanos = behaviour.latency().toNanos();
+        long jitter = behaviour.jitter().toNanos();
+        if (jitter > 0) {
+            nanos += ThreadLocalRandom.current().nextLong(jitter + 1);
+        }
+        if (nanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(nanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        in.transferTo(OutputStream.nullOutputStream());
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+}
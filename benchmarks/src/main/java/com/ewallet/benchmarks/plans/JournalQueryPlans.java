@@ -0,0 +1,187 @@
+package com.ewallet.benchmarks.plans;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Query plans of the wallet's journal queries before and after the
+ * {@code V2__wallet_journal_indexes} migration. Builds the V1 schema, fills the
+ * journal with {@code rows} rows over {@code accounts} accounts, and prints
+ * {@code EXPLAIN (ANALYZE, BUFFERS)} for a journal sum and a keyset history page
+ * of one account, then applies V2 and prints them again.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.ewallet.benchmarks.plans.JournalQueryPlans \
+ *     --rows=1000000 --accounts=1000
+ * </pre>
+ *
+ * Runs on an embedded PostgreSQL unless {@code --url} is given; against an
+ * existing database it works in a schema of its own, dropped at the end.
+ */
+public class JournalQueryPlans {
+
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "rows", "1000000",
+            "accounts", "1000",
+            "page-size", "100",
+            "url", "",
+            "user", "postgres",
+            "password", "");
+
+    private static final String SCHEMA = "journal_plans";
+
+    // the statements WalletRepository issues for calculateBalanceFromJournal and findPageAfter
+    private static final String JOURNAL_SUM = "SELECT COALESCE(SUM(CASE WHEN tran_type = 'C' THEN amount "
+            + "WHEN tran_type = 'D' THEN -amount END), 0) FROM wallet WHERE wallet_acc_no = ?";
+
+    private static final String HISTORY_PAGE = "SELECT transaction_id, wallet_acc_no, tran_type, amount, created_time "
+            + "FROM wallet WHERE wallet_acc_no = ? AND (created_time, transaction_id) > (?, ?) "
+            + "ORDER BY created_time, transaction_id LIMIT ?";
+
+    private static final PrintStream out = System.out;
+
+    private final Map<String, String> options;
+
+    JournalQueryPlans(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            if (!DEFAULTS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown option --" + name + ", known: " + DEFAULTS.keySet());
+            }
+            options.put(name, arg.substring(arg.indexOf('=') + 1));
+        }
+
+        JournalQueryPlans plans = new JournalQueryPlans(options);
+        if (options.get("url").isEmpty()) {
+            try (EmbeddedPostgres postgres = EmbeddedPostgres.start();
+                 Connection connection = postgres.getPostgresDatabase().getConnection()) {
+                out.printf("Embedded %s%n", serverVersion(connection));
+                plans.run(connection);
+            }
+        } else {
+            try (Connection connection = DriverManager.getConnection(options.get("url"), options.get("user"),
+                    options.get("password"))) {
+                out.printf("%s at %s%n", serverVersion(connection), options.get("url"));
+                execute(connection, "CREATE SCHEMA " + SCHEMA);
+                execute(connection, "SET search_path TO " + SCHEMA);
+                try {
+                    plans.run(connection);
+                } finally {
+                    execute(connection, "DROP SCHEMA " + SCHEMA + " CASCADE");
+                }
+            }
+        }
+    }
+
+    void run(Connection connection) throws SQLException, IOException {
+        int rows = Integer.parseInt(options.get("rows"));
+        int accounts = Integer.parseInt(options.get("accounts"));
+
+        execute(connection, migration("V1__create_wallet_tables.sql"));
+        out.printf("Loading %,d journal rows over %,d accounts%n", rows, accounts);
+        try (PreparedStatement load = connection.prepareStatement("INSERT INTO wallet "
+                + "(wallet_acc_no, tran_type, amount, created_time) "
+                + "SELECT 'ACC' || (i % ?), CASE WHEN i % 3 = 0 THEN 'D' ELSE 'C' END, (i % 100) + 0.5, "
+                + "TIMESTAMP '2024-01-01' + i * INTERVAL '1 second' FROM generate_series(1, ?) i")) {
+            load.setInt(1, accounts);
+            load.setInt(2, rows);
+            load.executeUpdate();
+        }
+        execute(connection, "VACUUM ANALYZE wallet");
+
+        String account = "ACC" + (accounts / 2);
+        Object[] cursor = middleOf(connection, account);
+        explainAll(connection, "Before V2 (V1 schema)", account, cursor);
+
+        execute(connection, migration("V2__wallet_journal_indexes.sql"));
+        // index-only scans need the visibility map the vacuum sets
+        execute(connection, "VACUUM ANALYZE wallet");
+        explainAll(connection, "After V2 (idx_wallet_acc_created)", account, cursor);
+    }
+
+    private void explainAll(Connection connection, String title, String account, Object[] cursor) throws SQLException {
+        out.printf("%n=== %s%n", title);
+        out.printf("%n--- journal sum of %s%n", account);
+        explain(connection, JOURNAL_SUM, account);
+        out.printf("%n--- %s-row history page of %s after %s/%s%n", options.get("page-size"), account, cursor[0], cursor[1]);
+        explain(connection, HISTORY_PAGE, account, cursor[0], cursor[1], Integer.parseInt(options.get("page-size")));
+    }
+
+    /**
+     * Prints the plan of the last of three runs, so it is measured with a warm cache.
+     */
+    private static void explain(Connection connection, String sql, Object... parameters) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            StringBuilder plan = new StringBuilder();
+            for (int run = 0; run < 3; run++) {
+                plan.setLength(0);
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        plan.append(result.getString(1)).append('\n');
+                    }
+                }
+            }
+            out.print(plan);
+        }
+    }
+
+    /**
+     * (created_time, transaction_id) of the row halfway through the account's history.
+     */
+    private static Object[] middleOf(Connection connection, String account) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT created_time, transaction_id FROM wallet "
+                + "WHERE wallet_acc_no = ? ORDER BY created_time, transaction_id "
+                + "OFFSET (SELECT COUNT(*) / 2 FROM wallet WHERE wallet_acc_no = ?) LIMIT 1")) {
+            statement.setString(1, account);
+            statement.setString(2, account);
+            try (ResultSet result = statement.executeQuery()) {
+                result.next();
+                Timestamp createdTime = result.getTimestamp(1);
+                return new Object[]{createdTime, result.getLong(2)};
+            }
+        }
+    }
+
+    private static String migration(String name) throws IOException {
+        try (InputStream script = JournalQueryPlans.class.getResourceAsStream("/db/migration/" + name)) {
+            if (script == null) {
+                throw new IllegalStateException("Wallet migration " + name + " is not on the classpath");
+            }
+            return new String(script.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String serverVersion(Connection connection) throws SQLException {
+        return "PostgreSQL " + connection.getMetaData().getDatabaseProductVersion();
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
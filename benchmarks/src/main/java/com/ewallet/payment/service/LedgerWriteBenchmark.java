@@ -0,0 +1,113 @@
+package com.ewallet.payment.service;
+
+import com.ewallet.benchmarks.BenchmarkContexts;
+import com.ewallet.payment.model.Ledger;
+import com.ewallet.payment.repository.LedgerRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing ledger rows through {@link LedgerRepository#saveAll}, batched by
+ * Hibernate in groups of {@code jdbcBatchSize} (1 is unbatched), against a single
+ * JDBC batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedgerWriteBenchmark {
+
+    private static final String INSERT_SQL = "INSERT INTO ledger (user_id, amount, status, transaction_id, leg, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Param({"3", "100"})
+    int rows;
+
+    @Param({"1", "50"})
+    int jdbcBatchSize;
+
+    private ConfigurableApplicationContext context;
+
+    private LedgerRepository ledgerRepository;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.payment(Map.of("spring.jpa.properties.hibernate.jdbc.batch_size", jdbcBatchSize));
+        ledgerRepository = context.getBean(LedgerRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Ledger> jpaSaveAll() {
+        return ledgerRepository.saveAll(newLedgers());
+    }
+
+    @Benchmark
+    public int[][] jdbcBatchInsert() {
+        List<Ledger> ledgers = newLedgers();
+        return transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_SQL, ledgers, ledgers.size(),
+                (ps, ledger) -> {
+                    ps.setLong(1, ledger.getUserId());
+                    ps.setBigDecimal(2, ledger.getAmount());
+                    ps.setString(3, ledger.getStatus());
+                    ps.setString(4, ledger.getTransactionId());
+                    ps.setShort(5, ledger.getLeg());
+                    ps.setTimestamp(6, Timestamp.from(ledger.getCreatedAt()));
+                }));
+    }
+
+    private List<Ledger> newLedgers() {
+        List<Ledger> ledgers = new ArrayList<>(rows);
+        Instant now = Instant.now();
+        String transactionId = null;
+        for (int i = 0; i < rows; i++) {
+            if (i % 3 == 0) {
+                transactionId = UUID.randomUUID().toString();
+            }
+            Ledger ledger = new Ledger();
+            ledger.setUserId((long) i);
+            ledger.setAmount(new BigDecimal("10.00"));
+            ledger.setStatus("CREDITED");
+            // three legs per payment, as PaymentService writes them
+            ledger.setTransactionId(transactionId);
+            ledger.setLeg((short) (i % 3));
+            ledger.setCreatedAt(now);
+            ledgers.add(ledger);
+        }
+        return ledgers;
+    }
+}
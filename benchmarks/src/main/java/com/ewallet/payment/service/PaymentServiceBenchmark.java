@@ -0,0 +1,98 @@
+package com.ewallet.payment.service;
+
+import com.ewallet.payment.dto.BalanceResponse;
+import com.ewallet.payment.dto.PaymentRequest;
+import com.ewallet.payment.dto.PostingRequest;
+import com.ewallet.payment.model.Ledger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU-only parts of {@link PaymentService#processPayment}: fee calculation,
+ * validation, ledger construction and the JSON mapping of the wallet calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentServiceBenchmark {
+
+    private final PaymentService paymentService = new PaymentService();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private PaymentRequest request;
+
+    private BalanceResponse balance;
+
+    private byte[] balanceJson;
+
+    private BigDecimal fee;
+
+    private BigDecimal netAmount;
+
+    private String transactionId;
+
+    @Setup
+    public void setUp() throws Exception {
+        request = new PaymentRequest();
+        request.setCustomerId(1L);
+        request.setMerchantAccountNo(2L);
+        request.setAmount(new BigDecimal("1234.57"));
+        request.setProductCurrency("INR");
+
+        balance = new BalanceResponse();
+        balance.setBalance(new BigDecimal("100000.00"));
+        balance.setCurrency("INR");
+        balance.setUserId("1");
+        balance.setWalletAccountNo("ACC1");
+        balanceJson = objectMapper.writeValueAsString(balance).getBytes(StandardCharsets.UTF_8);
+
+        fee = paymentService.calculateWalletFee(request.getAmount());
+        netAmount = request.getAmount().subtract(fee);
+        transactionId = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public BigDecimal calculateWalletFee() {
+        return paymentService.calculateWalletFee(request.getAmount());
+    }
+
+    @Benchmark
+    public boolean validateTransaction() {
+        return paymentService.validateTransaction(request, balance);
+    }
+
+    @Benchmark
+    public List<Ledger> buildLedgerEntries() {
+        return paymentService.buildLedgerEntries(request, transactionId, "bench-key", fee, netAmount);
+    }
+
+    @Benchmark
+    public byte[] writePostingRequest() throws Exception {
+        PostingRequest posting = paymentService.buildPostingRequest(request, transactionId, fee, netAmount);
+        return objectMapper.writeValueAsBytes(posting);
+    }
+
+    @Benchmark
+    public BalanceResponse readBalanceResponse() throws Exception {
+        return objectMapper.readValue(balanceJson, BalanceResponse.class);
+    }
+}
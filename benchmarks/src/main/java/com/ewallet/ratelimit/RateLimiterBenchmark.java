@@ -0,0 +1,59 @@
+package com.ewallet.ratelimit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one {@link RateLimiter#tryAcquire} from 8 threads: all on one hot
+ * key, or spread over {@code keys} keys, with more keys than buckets kept so
+ * buckets are evicted and recreated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final int MAX_BUCKETS = 100_000;
+
+    @Param({"1", "10000", "1000000"})
+    int keys;
+
+    private RateLimiter rateLimiter;
+
+    private RateLimitTier tier;
+
+    private String[] keyNames;
+
+    @Setup
+    public void setUp() {
+        rateLimiter = new RateLimiter(MAX_BUCKETS, Duration.ofMinutes(10));
+        tier = new RateLimitTier("bench", 1000, 2000);
+        keyNames = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            keyNames[i] = "customer:" + i;
+        }
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        return rateLimiter.tryAcquire(keyNames[ThreadLocalRandom.current().nextInt(keys)], tier);
+    }
+}
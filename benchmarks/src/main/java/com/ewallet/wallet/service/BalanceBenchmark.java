@@ -0,0 +1,103 @@
+package com.ewallet.wallet.service;
+
+import com.ewallet.benchmarks.BenchmarkContexts;
+import com.ewallet.wallet.entity.Wallet;
+import com.ewallet.wallet.repository.WalletBalanceRepository;
+import com.ewallet.wallet.repository.WalletRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance lookup cost as an account's history grows: summing the journal,
+ * summing only the {@value #TAIL_SIZE} rows after a balance checkpoint, and
+ * reading the balance snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BalanceBenchmark {
+
+    private static final String ACCOUNT = "ACC_BENCH";
+
+    private static final int INSERT_CHUNK = 1000;
+
+    private static final int TAIL_SIZE = 100;
+
+    @Param({"100", "10000", "100000"})
+    int historySize;
+
+    private ConfigurableApplicationContext context;
+
+    private WalletRepository walletRepository;
+
+    private WalletBalanceRepository walletBalanceRepository;
+
+    private BalanceCheckpointJob balanceCheckpointJob;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.wallet();
+        walletRepository = context.getBean(WalletRepository.class);
+        walletBalanceRepository = context.getBean(WalletBalanceRepository.class);
+        balanceCheckpointJob = context.getBean(BalanceCheckpointJob.class);
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        LocalDateTime start = LocalDateTime.now().minusDays(1).minusSeconds(historySize);
+        for (int from = 0; from < historySize; from += INSERT_CHUNK) {
+            List<Wallet> chunk = new ArrayList<>(INSERT_CHUNK);
+            for (int i = from; i < Math.min(from + INSERT_CHUNK, historySize); i++) {
+                chunk.add(new Wallet(ACCOUNT, i % 4 == 0 ? "D" : "C", new BigDecimal("10.00"), start.plusSeconds(i)));
+            }
+            transactionTemplate.executeWithoutResult(status -> walletRepository.batchInsert(chunk));
+        }
+        balanceCheckpointJob.checkpoint(ACCOUNT);
+
+        List<Wallet> tail = new ArrayList<>(TAIL_SIZE);
+        for (int i = 0; i < TAIL_SIZE; i++) {
+            tail.add(new Wallet(ACCOUNT, "C", new BigDecimal("10.00"), LocalDateTime.now()));
+        }
+        transactionTemplate.executeWithoutResult(status -> walletRepository.batchInsert(tail));
+        context.getBean(BalanceSnapshotJob.class).rebuild(ACCOUNT);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BigDecimal journalSum() {
+        return walletRepository.calculateBalanceFromJournal(ACCOUNT);
+    }
+
+    @Benchmark
+    public BigDecimal checkpointPlusTail() {
+        return balanceCheckpointJob.journalBalance(ACCOUNT);
+    }
+
+    @Benchmark
+    public BigDecimal snapshotRead() {
+        return walletBalanceRepository.checkBalance(ACCOUNT);
+    }
+}
@@ -0,0 +1,83 @@
+package com.ewallet.wallet.service;
+
+import com.ewallet.benchmarks.BenchmarkContexts;
+import com.ewallet.wallet.dto.UserBalanceDTO;
+import com.ewallet.wallet.entity.WalletBalance;
+import com.ewallet.wallet.entity.WalletUser;
+import com.ewallet.wallet.repository.UserRepository;
+import com.ewallet.wallet.repository.WalletBalanceRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent {@link WalletService#getUserWithBalance} calls spread over
+ * {@code users} users, answered one query per call ({@code direct}), with
+ * concurrent lookups of a user collapsed ({@code collapse}), or additionally
+ * batched over a 1 ms window ({@code batch}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class CheckBalanceBenchmark {
+
+    @Param({"direct", "collapse", "batch"})
+    String mode;
+
+    @Param({"1", "1000"})
+    int users;
+
+    private ConfigurableApplicationContext context;
+
+    private WalletService walletService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.wallet(Map.of(
+                "wallet.balance-lookup.collapse", String.valueOf(!"direct".equals(mode)),
+                "wallet.balance-lookup.batch-window", "batch".equals(mode) ? "1ms" : "0ms"));
+        walletService = context.getBean(WalletService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        WalletBalanceRepository walletBalanceRepository = context.getBean(WalletBalanceRepository.class);
+        for (int i = 0; i < users; i++) {
+            WalletUser user = new WalletUser();
+            user.setUserId(String.valueOf(i));
+            user.setName("user" + i);
+            user.setWalletAccNo("ACC" + i);
+            user.setCurrency("INR");
+            userRepository.save(user);
+            walletBalanceRepository.save(new WalletBalance("ACC" + i, new BigDecimal("100.00"), LocalDateTime.now()));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserBalanceDTO checkBalance() {
+        return walletService.getUserWithBalance(String.valueOf(ThreadLocalRandom.current().nextInt(users)));
+    }
+}
@@ -0,0 +1,103 @@
+package com.ewallet.wallet.service;
+
+import com.ewallet.benchmarks.BenchmarkContexts;
+import com.ewallet.wallet.dto.WalletRequestDTO;
+import com.ewallet.wallet.entity.WalletUser;
+import com.ewallet.wallet.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link WalletService#debit} end to end against the embedded database, on one
+ * thread and with several threads either debiting their own account or all
+ * hitting the same one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DebitBenchmark {
+
+    // large enough that no benchmark run can drain an account
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000000.00");
+
+    private static final BigDecimal DEBIT = new BigDecimal("0.01");
+
+    private final AtomicInteger accounts = new AtomicInteger();
+
+    private ConfigurableApplicationContext context;
+
+    private WalletService walletService;
+
+    private WalletRequestDTO sharedDebit;
+
+    @State(Scope.Thread)
+    public static class OwnAccount {
+
+        WalletRequestDTO debit;
+
+        @Setup
+        public void setUp(DebitBenchmark benchmark) {
+            debit = new WalletRequestDTO(benchmark.openAccount(), DEBIT);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.wallet();
+        walletService = context.getBean(WalletService.class);
+        sharedDebit = new WalletRequestDTO(openAccount(), DEBIT);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void debit(OwnAccount account) {
+        walletService.debit(account.debit);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void debitOwnAccount(OwnAccount account) {
+        walletService.debit(account.debit);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void debitSharedAccount() {
+        walletService.debit(sharedDebit);
+    }
+
+    String openAccount() {
+        String userId = "bench-" + accounts.incrementAndGet();
+        WalletUser user = new WalletUser();
+        user.setUserId(userId);
+        user.setName(userId);
+        user.setWalletAccNo("ACC_" + userId);
+        user.setCurrency("INR");
+        context.getBean(UserRepository.class).save(user);
+        walletService.credit(new WalletRequestDTO(userId, OPENING_BALANCE));
+        return userId;
+    }
+}
@@ -0,0 +1,86 @@
+package com.ewallet.wallet.service;
+
+import com.ewallet.benchmarks.BenchmarkContexts;
+import com.ewallet.wallet.entity.Wallet;
+import com.ewallet.wallet.repository.WalletRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing wallet journal rows through {@link WalletRepository#saveAll} against
+ * {@link WalletRepository#batchInsert}, which {@link WalletService#postBatch} uses.
+ * {@code jdbcBatchSize} 1 turns off Hibernate's insert batching, as the IDENTITY
+ * ids did before journal ids came from a pooled sequence.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WalletWriteBenchmark {
+
+    @Param({"3", "100"})
+    int rows;
+
+    @Param({"1", "50"})
+    int jdbcBatchSize;
+
+    private ConfigurableApplicationContext context;
+
+    private WalletRepository walletRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.wallet(Map.of("spring.jpa.properties.hibernate.jdbc.batch_size", jdbcBatchSize));
+        walletRepository = context.getBean(WalletRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Wallet> jpaSaveAll() {
+        return walletRepository.saveAll(newJournalRows());
+    }
+
+    @Benchmark
+    public List<Wallet> jdbcBatchInsert() {
+        List<Wallet> journal = newJournalRows();
+        transactionTemplate.executeWithoutResult(status -> walletRepository.batchInsert(journal));
+        return journal;
+    }
+
+    private List<Wallet> newJournalRows() {
+        List<Wallet> journal = new ArrayList<>(rows);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < rows; i++) {
+            journal.add(new Wallet("ACC" + (i % 3), i % 3 == 0 ? "D" : "C", new BigDecimal("10.00"), now));
+        }
+        return journal;
+    }
+}
@@ -2,6 +2,7 @@ package com.ewallet.notification;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.util.TimeZone;
 
@@ -9,6 +10,7 @@ import java.util.TimeZone;
  * Main class for Notification Service
  */
 @SpringBootApplication
+@EnableScheduling
 public class NotificationServiceApp {
     public static void main(String[] args) {
         TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
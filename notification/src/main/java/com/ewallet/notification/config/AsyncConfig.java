@@ -0,0 +1,62 @@
+package com.ewallet.notification.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Executor for @Async notification processing. Work is bounded either by a
+ * fixed thread pool with a bounded queue or, in virtual-thread mode, by a cap
+ * on in-flight tasks. Once the bound is hit new tasks are rejected with
+ * TaskRejectedException, which the controller turns into 503 so callers back
+ * off instead of piling up work. Pool metrics are published by Spring Boot as
+ * executor.* tagged name=notificationExecutor. Virtual-thread mode needs Java
+ * 21; on older JVMs the thread pool is used instead.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+
+    @Value("${notification.executor.core-size:8}")
+    private int coreSize;
+
+    @Value("${notification.executor.max-size:16}")
+    private int maxSize;
+
+    @Value("${notification.executor.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${notification.executor.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @Value("${notification.executor.max-in-flight:1000}")
+    private int maxInFlight;
+
+    @Bean
+    public TaskExecutor notificationExecutor(MeterRegistry meterRegistry) {
+        if (virtualThreads) {
+            if (Runtime.version().feature() >= 21) {
+                return new BoundedVirtualThreadExecutor("notification-", maxInFlight, meterRegistry);
+            }
+            logger.warn("notification.executor.virtual-threads needs Java 21, running on {}; using a thread pool",
+                    Runtime.version().feature());
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("notification-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
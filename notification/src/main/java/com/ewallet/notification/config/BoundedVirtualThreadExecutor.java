@@ -0,0 +1,52 @@
+package com.ewallet.notification.config;
+
+import java.util.concurrent.Semaphore;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs each task on its own virtual thread (requires Java 21) and rejects new
+ * tasks once maxInFlight are running, instead of queueing them without bound.
+ */
+class BoundedVirtualThreadExecutor implements TaskExecutor {
+
+	private final SimpleAsyncTaskExecutor delegate;
+
+	private final Semaphore permits;
+
+    BoundedVirtualThreadExecutor(String threadNamePrefix, int maxInFlight, MeterRegistry meterRegistry) {
+        this.delegate = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        this.delegate.setVirtualThreads(true);
+        this.permits = new Semaphore(maxInFlight);
+        Gauge.builder("executor.active", permits, p -> maxInFlight - p.availablePermits())
+                .tag("name", "notificationExecutor")
+                .register(meterRegistry);
+        Gauge.builder("executor.pool.max", () -> maxInFlight)
+                .tag("name", "notificationExecutor")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!permits.tryAcquire()) {
+            throw new TaskRejectedException("Notification executor is at its limit of in-flight tasks");
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.ewallet.notification.controller;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,4 +29,11 @@ public class NotificationController {
         notificationService.processNotification(request);
         return ResponseEntity.ok("Notification sent successfully.");
     }
+
+    @PostMapping("/send-batch")
+    public ResponseEntity<String> sendNotifications(@RequestBody List<NotificationRequest> requests) {
+    	logger.info("inside sendNotifications method, {} notifications", requests.size());
+        notificationService.processNotifications(requests);
+        return ResponseEntity.ok("Notifications stored successfully.");
+    }
 }	
\ No newline at end of file
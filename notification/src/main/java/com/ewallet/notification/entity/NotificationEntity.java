@@ -8,27 +8,34 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Data;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_user", columnList = "user_id"),
+        @Index(name = "idx_notifications_created", columnList = "created_at")})
 @Data 
 public class NotificationEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_id_seq")
+    @SequenceGenerator(name = "notifications_id_seq", sequenceName = "notifications_id_seq", allocationSize = 50)
     private Long id;
 
     private String userId;
     private Double amount;
     private String transactionStatus;
     private String message;
+    private LocalDateTime createdAt;
 
     public NotificationEntity(NotificationRequest request) {
         this.userId = request.getUserId();
         this.amount = request.getAmount();
         this.transactionStatus = request.getTransactionStatus();
         this.message = request.getMessage();
+        this.createdAt = LocalDateTime.now();
     }
 }
\ No newline at end of file
@@ -0,0 +1,178 @@
+package com.ewallet.notification.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ewallet.archive.ColumnType;
+import com.ewallet.archive.SegmentSchema;
+import com.ewallet.archive.SegmentStore;
+import com.ewallet.archive.SegmentWriter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import static com.ewallet.archive.SegmentSchema.column;
+
+/**
+ * Moves notifications older than {@code notification.archive.retention} into
+ * segment files under {@code notification.archive.dir}, one per
+ * {@code segment-span} window. Nothing reads notifications back, so the
+ * segments are kept for audits and the table only holds the recent ones.
+ */
+@Component
+public class NotificationArchive {
+
+	private static final Logger logger = LoggerFactory.getLogger(NotificationArchive.class);
+
+	private static final SegmentSchema SCHEMA = SegmentSchema.of(2,
+			column("created_at", ColumnType.TIMESTAMP),
+			column("id", ColumnType.LONG),
+			column("user_id", ColumnType.STRING),
+			column("amount", ColumnType.DOUBLE),
+			column("transaction_status", ColumnType.STRING),
+			column("message", ColumnType.STRING));
+
+	private static final String SELECT_SQL = "SELECT created_at, id, user_id, amount, transaction_status, message "
+			+ "FROM notifications WHERE created_at >= ? AND created_at < ? ORDER BY created_at, id";
+
+	private static final String DELETE_SQL = "DELETE FROM notifications WHERE created_at >= ? AND created_at < ?";
+
+	private static final String INSERT_SEGMENT_SQL = "INSERT INTO notification_archive_segment "
+			+ "(name, covered_from, covered_until, row_count, size_bytes, created_time) VALUES (?, ?, ?, ?, ?, ?)";
+
+	private static final int FETCH_SIZE = 1000;
+
+	private static final DateTimeFormatter SEGMENT_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Value("${notification.archive.dir:var/archive/notification}")
+	private Path directory;
+
+	@Value("${notification.archive.retention:90d}")
+	private Duration retention;
+
+	@Value("${notification.archive.segment-span:7d}")
+	private Duration segmentSpan;
+
+	@Value("${notification.archive.block-rows:4096}")
+	private int blockRows;
+
+	private SegmentStore store;
+
+    @PostConstruct
+    void open() throws IOException {
+        store = new SegmentStore(directory);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        store.close();
+    }
+
+    @Scheduled(cron = "${notification.archive.cron:-}")
+    public void scheduledArchive() {
+        long rows = archive();
+        if (rows > 0) {
+            logger.info("archived {} notifications", rows);
+        }
+    }
+
+    /**
+     * Archive every full window older than the retention. Returns the number of
+     * notifications archived.
+     */
+    public long archive() {
+        LocalDateTime horizon = LocalDateTime.now().minus(retention);
+        LocalDateTime from = jdbcTemplate.queryForObject(
+                "SELECT MAX(covered_until) FROM notification_archive_segment", LocalDateTime.class);
+        if (from == null) {
+            LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM notifications",
+                    LocalDateTime.class);
+            if (oldest == null) {
+                return 0;
+            }
+            from = oldest.truncatedTo(ChronoUnit.DAYS);
+        }
+        long archived = 0;
+        while (!from.plus(segmentSpan).isAfter(horizon)) {
+            LocalDateTime until = from.plus(segmentSpan);
+            archived += archive(from, until);
+            from = until;
+        }
+        return archived;
+    }
+
+    private long archive(LocalDateTime from, LocalDateTime until) {
+        String name = "notifications-" + SEGMENT_TIME.format(from) + "-" + SEGMENT_TIME.format(until) + ".seg";
+        Timestamp fromTime = Timestamp.valueOf(from);
+        Timestamp untilTime = Timestamp.valueOf(until);
+        long rows;
+        long size;
+        try (SegmentWriter writer = store.create(name, SCHEMA, blockRows)) {
+            // a fetch size makes the driver stream the window instead of loading it whole;
+            // PostgreSQL only honours it inside a transaction
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(SELECT_SQL);
+                ps.setFetchSize(FETCH_SIZE);
+                ps.setTimestamp(1, fromTime);
+                ps.setTimestamp(2, untilTime);
+                return ps;
+            }, (ResultSet rs) -> {
+                try {
+                    writer.append(rs.getTimestamp(1).toLocalDateTime().toInstant(ZoneOffset.UTC), rs.getLong(2),
+                            rs.getString(3), rs.getObject(4, Double.class), rs.getString(5), rs.getString(6));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            rows = writer.rows();
+            size = writer.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write archive segment " + name, e);
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int deleted = jdbcTemplate.update(DELETE_SQL, fromTime, untilTime);
+                if (deleted != rows) {
+                    throw new IllegalStateException("Notifications in " + name + " changed while archiving: wrote "
+                            + rows + ", deleting " + deleted);
+                }
+                jdbcTemplate.update(INSERT_SEGMENT_SQL, name, fromTime, untilTime, rows, size,
+                        Timestamp.valueOf(LocalDateTime.now()));
+            });
+        } catch (RuntimeException e) {
+            try {
+                store.delete(name);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        logger.debug("archived {} notifications into {} ({} bytes)", rows, name, size);
+        return rows;
+    }
+}
@@ -0,0 +1,123 @@
+package com.ewallet.notification.service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ewallet.notification.entity.NotificationEntity;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Writes notifications with JDBC batch inserts. {@link #insert} stores a list
+ * before it returns and throws if it cannot, for callers that must not lose
+ * them. {@link #write} buffers single notifications and flushes them when a full
+ * batch has accumulated or when the flush interval elapses, whichever comes
+ * first; a buffered batch that fails to insert is logged and dropped. Each batch
+ * insert is timed as notification.writer.insert{outcome=success|failure}.
+ */
+@Component
+public class NotificationBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationBatchWriter.class);
+
+    private static final String INSERT_SQL = "INSERT INTO notifications (user_id, amount, transaction_status, message, created_at) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notification.writer.batch-size:200}")
+    private int batchSize;
+
+    private final Queue<NotificationEntity> buffer = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger buffered = new AtomicInteger();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * Store the notifications in one transaction, in JDBC batches of batch-size.
+     */
+    @Transactional
+    public void insert(List<NotificationEntity> notifications) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, notifications, batchSize, (ps, notification) -> {
+                ps.setString(1, notification.getUserId());
+                ps.setObject(2, notification.getAmount());
+                ps.setString(3, notification.getTransactionStatus());
+                ps.setString(4, notification.getMessage());
+                ps.setTimestamp(5, Timestamp.valueOf(notification.getCreatedAt()));
+            });
+            logger.debug("stored {} notifications", notifications.size());
+        } catch (DataAccessException e) {
+            outcome = "failure";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("notification.writer.insert", "outcome", outcome));
+        }
+    }
+
+    public void write(NotificationEntity notification) {
+        buffer.add(notification);
+        if (buffered.incrementAndGet() >= batchSize) {
+            flush();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.writer.flush-interval-ms:200}")
+    @PreDestroy
+    public void flush() {
+        // a flush already in progress keeps draining until the buffer is empty
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            List<NotificationEntity> batch;
+            while (!(batch = drain()).isEmpty()) {
+                insertBuffered(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private List<NotificationEntity> drain() {
+        List<NotificationEntity> batch = new ArrayList<>(batchSize);
+        NotificationEntity notification;
+        while (batch.size() < batchSize && (notification = buffer.poll()) != null) {
+            batch.add(notification);
+        }
+        buffered.addAndGet(-batch.size());
+        return batch;
+    }
+
+    private void insertBuffered(List<NotificationEntity> batch) {
+        try {
+            insert(batch);
+        } catch (DataAccessException e) {
+            logger.error("Failed to store {} notifications: {}", batch.size(), e.getMessage());
+        }
+    }
+}
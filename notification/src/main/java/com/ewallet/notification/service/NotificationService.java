@@ -1,5 +1,7 @@
 package com.ewallet.notification.service;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,7 +13,6 @@ import org.springframework.stereotype.Service;
 
 import com.ewallet.notification.dto.NotificationRequest;
 import com.ewallet.notification.entity.NotificationEntity;
-import com.ewallet.notification.repository.NotificationRepo;
 
 @Service
 public class NotificationService {
@@ -19,21 +20,27 @@ public class NotificationService {
 	private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
 
 	@Autowired
-	private NotificationRepo notificationRepository;
+	private NotificationBatchWriter notificationBatchWriter;
 	 
 	
-    @Async
+    @Async("notificationExecutor")
     public void processNotification(NotificationRequest request) {
      
         logger.info("SYSTEM NOTIFICATION GENERATED:");
         logger.info("To User: {}", request.getUserId());
         logger.info("amount: {}", request.getAmount());
         logger.info("status: {}", request.getTransactionStatus());
-        try {
-        	notificationRepository.save(new NotificationEntity(request));
-            logger.info("notification sent");
-        } catch (Exception e) {
-            logger.error("Failed to send email: " + e.getMessage());
-        }
+        notificationBatchWriter.write(new NotificationEntity(request));
+        logger.info("notification queued");
+    }
+
+    /**
+     * Stores the notifications before returning, so a caller that gets a success
+     * response can consider them delivered.
+     */
+    public void processNotifications(List<NotificationRequest> requests) {
+
+        logger.info("SYSTEM NOTIFICATIONS GENERATED: {}", requests.size());
+        notificationBatchWriter.insert(requests.stream().map(NotificationEntity::new).toList());
     }
 }
\ No newline at end of file
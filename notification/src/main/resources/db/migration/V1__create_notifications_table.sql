@@ -0,0 +1,11 @@
+-- Baseline notification schema. IF NOT EXISTS keeps this safe on databases
+-- that were created earlier by hibernate ddl-auto=update.
+
+CREATE TABLE IF NOT EXISTS notifications (
+    id                 BIGSERIAL NOT NULL,
+    user_id            VARCHAR(255),
+    amount             FLOAT(53),
+    transaction_status VARCHAR(255),
+    message            VARCHAR(255),
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,2 @@
+-- Notification lookups are per user.
+CREATE INDEX IF NOT EXISTS idx_notifications_user ON notifications (user_id);
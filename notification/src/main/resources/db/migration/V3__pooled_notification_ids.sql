@@ -0,0 +1,3 @@
+-- NotificationEntity allocates ids in blocks of 50; NotificationBatchWriter's
+-- inserts keep using the column default.
+ALTER SEQUENCE notifications_id_seq INCREMENT BY 50;
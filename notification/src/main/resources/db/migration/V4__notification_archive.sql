@@ -0,0 +1,15 @@
+-- Notifications older than notification.archive.retention are moved to segment files,
+-- one per [covered_from, covered_until) window, see NotificationArchive. Rows that
+-- predate created_at are stamped with the time of this migration.
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS created_at TIMESTAMP(6) NOT NULL DEFAULT now();
+CREATE INDEX IF NOT EXISTS idx_notifications_created ON notifications (created_at);
+
+CREATE TABLE IF NOT EXISTS notification_archive_segment (
+    name          VARCHAR(255) NOT NULL,
+    covered_from  TIMESTAMP(6) NOT NULL,
+    covered_until TIMESTAMP(6) NOT NULL,
+    row_count     BIGINT       NOT NULL,
+    size_bytes    BIGINT       NOT NULL,
+    created_time  TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (name)
+);
@@ -2,8 +2,8 @@ package com.ewallet.payment;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.util.TimeZone;
 
@@ -11,15 +11,11 @@ import java.util.TimeZone;
  * Main class for Payment Service
  */
 @SpringBootApplication
+@EnableScheduling
+@EnableCaching
 public class Payment {
     public static void main(String[] args) {
         TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
         SpringApplication.run(Payment.class, args);
     }
-
-    // added RestTemplate bean for HTTP calls to wallet service
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
 }
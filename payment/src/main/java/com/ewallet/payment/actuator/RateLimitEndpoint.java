@@ -0,0 +1,36 @@
+package com.ewallet.payment.actuator;
+
+import com.ewallet.payment.service.PaymentRateLimiter;
+import com.ewallet.ratelimit.RateLimitState;
+import com.ewallet.ratelimit.RateLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * GET /actuator/ratelimits shows the tiers with the permits they granted and
+ * refused and how many buckets are kept; GET /actuator/ratelimits/{scope}/{id}
+ * (scope customer or merchant) the permits one account has left.
+ */
+@Component
+@Endpoint(id = "ratelimits")
+public class RateLimitEndpoint {
+
+    @Autowired
+    PaymentRateLimiter paymentRateLimiter;
+
+    @Autowired
+    RateLimiter rateLimiter;
+
+    @ReadOperation
+    public RateLimitState state() {
+        return RateLimitState.of(paymentRateLimiter.isEnabled(), rateLimiter, paymentRateLimiter.tiers());
+    }
+
+    @ReadOperation
+    public Integer available(@Selector String scope, @Selector Long id) {
+        return paymentRateLimiter.available(scope, id);
+    }
+}
@@ -0,0 +1,45 @@
+package com.ewallet.payment.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Connection pool and timeout settings for the downstream services payment calls.
+ * Each downstream gets its own pool so one slow service cannot use up the
+ * connections (and request threads) needed to reach the other.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "payment.http")
+public class PaymentHttpProperties {
+
+    private Client wallet = new Client();
+
+    private Client notification = new Client();
+
+    @Getter
+    @Setter
+    public static class Client {
+        private String baseUrl;
+        private int maxConnections = 50;
+        private int maxConnectionsPerRoute = 50;
+        // time to open a TCP connection
+        private Duration connectTimeout = Duration.ofSeconds(1);
+        // time to wait for the response once the request is sent
+        private Duration readTimeout = Duration.ofSeconds(3);
+        // time to wait for a free pooled connection before failing fast
+        private Duration connectionRequestTimeout = Duration.ofMillis(500);
+        private Duration keepAlive = Duration.ofSeconds(30);
+        private Duration idleEviction = Duration.ofSeconds(60);
+        // encoding of request and response bodies; CBOR needs a service that accepts it (wallet does)
+        private WireFormat wireFormat = WireFormat.JSON;
+    }
+
+    public enum WireFormat {
+        JSON,
+        CBOR
+    }
+}
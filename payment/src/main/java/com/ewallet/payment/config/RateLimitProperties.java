@@ -0,0 +1,32 @@
+package com.ewallet.payment.config;
+
+import com.ewallet.ratelimit.RateLimitSettings;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Payment rate limits: named tiers, and which tier each customer and merchant
+ * is in. Accounts without an entry under {@code accounts} get their scope's tier.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "payment.rate-limit")
+public class RateLimitProperties extends RateLimitSettings {
+
+    private Scope customer = new Scope();
+
+    private Scope merchant = new Scope();
+
+    @Getter
+    @Setter
+    public static class Scope {
+        private String tier;
+        private Map<Long, String> accounts = new HashMap<>();
+    }
+}
@@ -0,0 +1,103 @@
+package com.ewallet.payment.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+/**
+ * One pooled RestTemplate per downstream service. The pools are sized and
+ * timed out independently, which acts as a bulkhead: when the notification
+ * service is slow its calls fail fast on the pool instead of blocking the
+ * wallet debit/credit path. Pool usage is published as
+ * httpcomponents.httpclient.pool.* metrics tagged with httpclient=wallet|notification.
+ * Bodies are JSON unless the client's wire-format is CBOR.
+ */
+@Configuration
+@EnableConfigurationProperties(PaymentHttpProperties.class)
+public class RestClientConfig {
+
+    @Bean
+    public PoolingHttpClientConnectionManager walletConnectionManager(PaymentHttpProperties properties, MeterRegistry meterRegistry) {
+        return connectionManager(properties.getWallet(), "wallet", meterRegistry);
+    }
+
+    @Bean
+    public PoolingHttpClientConnectionManager notificationConnectionManager(PaymentHttpProperties properties, MeterRegistry meterRegistry) {
+        return connectionManager(properties.getNotification(), "notification", meterRegistry);
+    }
+
+    @Bean
+    public RestTemplate walletRestTemplate(RestTemplateBuilder builder, PaymentHttpProperties properties,
+                                           PoolingHttpClientConnectionManager walletConnectionManager,
+                                           Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        return restTemplate(builder, properties.getWallet(), walletConnectionManager, objectMapperBuilder);
+    }
+
+    @Bean
+    public RestTemplate notificationRestTemplate(RestTemplateBuilder builder, PaymentHttpProperties properties,
+                                                 PoolingHttpClientConnectionManager notificationConnectionManager,
+                                                 Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        return restTemplate(builder, properties.getNotification(), notificationConnectionManager, objectMapperBuilder);
+    }
+
+    private PoolingHttpClientConnectionManager connectionManager(PaymentHttpProperties.Client client, String name,
+                                                                 MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(client.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(client.getMaxConnectionsPerRoute());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(client.getConnectTimeout()))
+                .setSocketTimeout(Timeout.of(client.getReadTimeout()))
+                .build());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, name).bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    private RestTemplate restTemplate(RestTemplateBuilder builder, PaymentHttpProperties.Client client,
+                                      PoolingHttpClientConnectionManager connectionManager,
+                                      Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(client.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(client.getReadTimeout()))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(client.getKeepAlive()))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(client.getIdleEviction()))
+                .build();
+        RestTemplate restTemplate = builder
+                .rootUri(client.getBaseUrl())
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+        if (client.getWireFormat() == PaymentHttpProperties.WireFormat.CBOR) {
+            // ahead of JSON, so objects are written as CBOR and it is the preferred Accept type for
+            // them; String responses still come after the text converter and stay text/plain
+            List<HttpMessageConverter<?>> converters = restTemplate.getMessageConverters();
+            int json = converters.indexOf(converters.stream()
+                    .filter(MappingJackson2HttpMessageConverter.class::isInstance).findFirst().orElseThrow());
+            converters.add(json,
+                    new MappingJackson2CborHttpMessageConverter(objectMapperBuilder.factory(new CBORFactory()).build()));
+        }
+        return restTemplate;
+    }
+}
@@ -1,22 +1,53 @@
 package com.ewallet.payment.controller;
 
+import com.ewallet.payment.dto.LedgerPage;
 import com.ewallet.payment.dto.PaymentRequest;
 import com.ewallet.payment.dto.TransactionResponse;
-import com.ewallet.payment.service.PaymentService;
+import com.ewallet.payment.model.Ledger;
+import com.ewallet.payment.model.LedgerUserSummary;
+import com.ewallet.payment.service.IdempotencyService;
+import com.ewallet.payment.service.LedgerService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("api/v1/payment")
 public class PaymentController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    @Autowired
+    IdempotencyService idempotencyService;
+
     @Autowired
-    PaymentService paymentService;
+    LedgerService ledgerService;
 
-    // expose POST /api/v1/payment/process
+    // expose POST /api/v1/payment/process; retries with the same Idempotency-Key get the original result,
+    // new payments beyond the customer's or merchant's rate limit get 429
     @PostMapping("/process")
-    public ResponseEntity<TransactionResponse> process(@Valid @RequestBody PaymentRequest req) {
-        return ResponseEntity.ok(paymentService.processPayment(req));
+    public ResponseEntity<TransactionResponse> process(@Valid @RequestBody PaymentRequest req,
+                                                      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return ResponseEntity.ok(idempotencyService.process(idempotencyKey, req));
+    }
+
+    // a user's ledger rows oldest first; pass X-Next-Cursor back as cursor for the next page
+    @GetMapping("/users/{userId}/ledger")
+    public ResponseEntity<List<Ledger>> statement(@PathVariable("userId") Long userId,
+                                                  @RequestParam(value = "cursor", required = false) String cursor,
+                                                  @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        LedgerPage page = ledgerService.statement(userId, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getEntries());
+    }
+
+    @GetMapping("/users/{userId}/summary")
+    public ResponseEntity<LedgerUserSummary> summary(@PathVariable("userId") Long userId) {
+        return ResponseEntity.ok(ledgerService.summary(userId));
     }
 }
@@ -0,0 +1,42 @@
+package com.ewallet.payment.dto;
+
+import com.ewallet.payment.exception.InvalidCursorException;
+import com.ewallet.payment.model.Ledger;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a user's ledger: the (createdAt, transactionId, leg) of
+ * the last row returned, sent to clients as an opaque URL-safe string.
+ */
+@Getter
+@AllArgsConstructor
+public class LedgerCursor {
+
+    private Instant createdAt;
+    private String transactionId;
+    private short leg;
+
+    public static LedgerCursor after(Ledger ledger) {
+        return new LedgerCursor(ledger.getCreatedAt(), ledger.getTransactionId(), ledger.getLeg());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + transactionId + "|" + leg;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static LedgerCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new LedgerCursor(Instant.parse(parts[0]), parts[1], Short.parseShort(parts[2]));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.ewallet.payment.dto;
+
+import com.ewallet.payment.model.Ledger;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class LedgerPage {
+
+    private List<Ledger> entries;
+
+    /** Cursor for the next page, null when this is the last page. */
+    private String nextCursor;
+}
@@ -0,0 +1,24 @@
+package com.ewallet.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostingLeg {
+
+    public static final String DEBIT = "D";
+    public static final String CREDIT = "C";
+
+    private String userId;
+    // DEBIT or CREDIT, as on the wallet journal
+    private String tranType;
+    private BigDecimal amount;
+
+}
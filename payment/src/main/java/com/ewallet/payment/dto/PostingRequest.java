@@ -0,0 +1,23 @@
+package com.ewallet.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Body of the wallet's POST /api/v1/batch: all legs of one payment, applied at
+ * most once per reference.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostingRequest {
+
+    private String reference;
+    private List<PostingLeg> legs;
+
+}
@@ -1,10 +1,12 @@
 package com.ewallet.payment.dto;
 
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import org.springframework.stereotype.Component;
 
 @Component
+@Getter
 @AllArgsConstructor
 @NoArgsConstructor
 public class TransactionResponse {
@@ -1,23 +1,37 @@
 package com.ewallet.payment.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.springframework.data.domain.Persistable;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 
+/**
+ * One leg of a payment. The table is hash partitioned by user_id (see V5
+ * migration), so the primary key in the database is (user_id, transaction_id, leg).
+ */
 @Entity
-@Table(name = "ledger")
+@Table(name = "ledger", indexes = @Index(name = "idx_ledger_user_created", columnList = "user_id, created_at, transaction_id, leg"))
+@IdClass(LedgerId.class)
 @Getter
 @Setter
 @NoArgsConstructor
-public class Ledger {
+public class Ledger implements Persistable<LedgerId> {
+
+    public static final short CUSTOMER_LEG = 0;
+    public static final short MERCHANT_LEG = 1;
+    public static final short FEE_LEG = 2;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
+    private String transactionId;
+
+    @Id
+    private short leg;
 
     private Long userId;
 
@@ -25,9 +39,34 @@ public class Ledger {
 
     private String status;
 
-    @Column(unique = true)
-    private String transactionId;
+    // Idempotency-Key of the request that created the payment. Keys are scoped to the customer:
+    // V5's uq_ledger_idempotency_key makes (idempotency_key, user_id) unique on DEBITED rows,
+    // so two customers may use the same key
+    private String idempotencyKey;
 
     private Instant createdAt;
-}
 
+    // ledger rows are only ever inserted, so save() must not look them up first
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
+    @Override
+    @JsonIgnore
+    public LedgerId getId() {
+        return new LedgerId(transactionId, leg);
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
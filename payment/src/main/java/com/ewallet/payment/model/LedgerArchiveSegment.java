@@ -0,0 +1,36 @@
+package com.ewallet.payment.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A segment file holding every ledger row created in [coveredFrom, coveredUntil).
+ */
+@Entity
+@Table(name = "ledger_archive_segment")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerArchiveSegment {
+
+    @Id
+    private String name;
+
+    private Instant coveredFrom;
+
+    private Instant coveredUntil;
+
+    private long rowCount;
+
+    private long sizeBytes;
+
+    private Instant createdAt;
+}
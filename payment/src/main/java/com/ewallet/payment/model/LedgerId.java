@@ -0,0 +1,20 @@
+package com.ewallet.payment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Key of a {@link Ledger} row: the payment's transaction id and the leg within it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerId implements Serializable {
+
+    private String transactionId;
+
+    private short leg;
+}
@@ -0,0 +1,66 @@
+package com.ewallet.payment.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Running totals of a user's ledger rows, updated in the same transaction as
+ * the rows themselves so totals never need a scan of the ledger. Users on
+ * most payments, like the fee account, have their totals split over several
+ * shard rows so concurrent payments do not queue on one row lock; everyone
+ * else only has shard 0.
+ */
+@Entity
+@Table(name = "ledger_user_summary")
+@IdClass(LedgerUserSummaryId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerUserSummary {
+
+    @Id
+    private Long userId;
+
+    @Id
+    @JsonIgnore
+    private short shard;
+
+    private BigDecimal totalDebited;
+
+    private BigDecimal totalCredited;
+
+    private long debitCount;
+
+    private long creditCount;
+
+    private Instant lastActivityAt;
+
+    public static LedgerUserSummary empty(Long userId) {
+        return new LedgerUserSummary(userId, (short) 0, BigDecimal.ZERO, BigDecimal.ZERO, 0, 0, null);
+    }
+
+    /**
+     * Add another summary's totals, e.g. another shard of the same user, to this one.
+     */
+    public LedgerUserSummary add(LedgerUserSummary other) {
+        totalDebited = totalDebited.add(other.totalDebited);
+        totalCredited = totalCredited.add(other.totalCredited);
+        debitCount += other.debitCount;
+        creditCount += other.creditCount;
+        if (lastActivityAt == null || (other.lastActivityAt != null && other.lastActivityAt.isAfter(lastActivityAt))) {
+            lastActivityAt = other.lastActivityAt;
+        }
+        return this;
+    }
+}
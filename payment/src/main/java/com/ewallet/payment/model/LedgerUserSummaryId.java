@@ -0,0 +1,20 @@
+package com.ewallet.payment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Key of a {@link LedgerUserSummary} row: the user and the shard of their totals.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerUserSummaryId implements Serializable {
+
+    private Long userId;
+
+    private short shard;
+}
@@ -0,0 +1,49 @@
+package com.ewallet.payment.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Notification waiting to be delivered to the notification service. Written in
+ * the same transaction as the {@link Ledger} rows and drained by NotificationRelay.
+ */
+@Entity
+@Table(name = "notification_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+public class NotificationOutbox {
+
+    public static final String PENDING = "PENDING";
+    public static final String SENT = "SENT";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_outbox_id_seq")
+    @SequenceGenerator(name = "notification_outbox_id_seq", sequenceName = "notification_outbox_id_seq", allocationSize = 50)
+    private Long id;
+
+    private String transactionId;
+
+    private String userId;
+
+    private Double amount;
+
+    private String transactionStatus;
+
+    private String message;
+
+    private String status;
+
+    private int attempts;
+
+    private Instant nextAttemptAt;
+
+    private Instant createdAt;
+
+    private Instant sentAt;
+}
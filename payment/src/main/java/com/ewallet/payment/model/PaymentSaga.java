@@ -0,0 +1,84 @@
+package com.ewallet.payment.model;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * State of one payment across the wallet posting and the local commit. The id is
+ * the payment's transaction id, which is also the reference of its wallet batch,
+ * so the batch can be reversed after a crash or an ambiguous wallet failure.
+ *
+ * <pre>
+ * STARTED -> COMPLETED                      wallet posted and ledger committed
+ * STARTED -> FAILED                         wallet refused the batch
+ * STARTED -> COMPENSATING -> COMPENSATED    wallet outcome unknown or local commit failed
+ *                         -> COMPENSATION_FAILED
+ * </pre>
+ */
+@Entity
+@Table(name = "payment_saga")
+@Getter
+@Setter
+@NoArgsConstructor
+public class PaymentSaga implements Persistable<String> {
+
+    public static final String STARTED = "STARTED";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+    public static final String COMPENSATING = "COMPENSATING";
+    public static final String COMPENSATED = "COMPENSATED";
+    public static final String COMPENSATION_FAILED = "COMPENSATION_FAILED";
+
+    @Id
+    private String id;
+
+    private Long customerId;
+
+    private Long merchantAccountNo;
+
+    private BigDecimal amount;
+
+    private BigDecimal fee;
+
+    private String idempotencyKey;
+
+    private String state;
+
+    // recovery workers poll only the partitions they own, see SagaRecoveryWorker
+    private int partitionNo;
+
+    private int attempts;
+
+    private Instant nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+
+    // the id is assigned, so tell save() to insert new sagas instead of merging them
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
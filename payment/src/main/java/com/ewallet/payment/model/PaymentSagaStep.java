@@ -0,0 +1,50 @@
+package com.ewallet.payment.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Audit trail of a {@link PaymentSaga}: one row per step attempt.
+ */
+@Entity
+@Table(name = "payment_saga_step")
+@Getter
+@Setter
+@NoArgsConstructor
+public class PaymentSagaStep {
+
+    public static final String WALLET_POSTING = "WALLET_POSTING";
+    public static final String LOCAL_COMMIT = "LOCAL_COMMIT";
+    public static final String COMPENSATION = "COMPENSATION";
+
+    public static final String SUCCEEDED = "SUCCEEDED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_saga_step_id_seq")
+    @SequenceGenerator(name = "payment_saga_step_id_seq", sequenceName = "payment_saga_step_id_seq", allocationSize = 50)
+    private Long id;
+
+    private String sagaId;
+
+    private String step;
+
+    private String outcome;
+
+    @Column(length = 1000)
+    private String detail;
+
+    private Instant createdAt;
+
+    public PaymentSagaStep(String sagaId, String step, String outcome, String detail, Instant createdAt) {
+        this.sagaId = sagaId;
+        this.step = step;
+        this.outcome = outcome;
+        this.detail = detail;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ewallet.payment.repository;
+
+import com.ewallet.payment.model.LedgerArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface LedgerArchiveSegmentRepository extends JpaRepository<LedgerArchiveSegment, String> {
+
+    List<LedgerArchiveSegment> findAllByOrderByCoveredFromAsc();
+
+    /**
+     * Segments holding rows created at or after the given time, oldest first.
+     */
+    List<LedgerArchiveSegment> findByCoveredUntilGreaterThanOrderByCoveredFromAsc(Instant createdAt);
+
+    /**
+     * End of the archived part of the ledger, null when nothing is archived.
+     */
+    @Query("SELECT MAX(s.coveredUntil) FROM LedgerArchiveSegment s")
+    Instant findArchivedUntil();
+}
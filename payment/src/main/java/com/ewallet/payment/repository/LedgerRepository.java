@@ -1,7 +1,60 @@
 package com.ewallet.payment.repository;
 
 import com.ewallet.payment.model.Ledger;
+import com.ewallet.payment.model.LedgerId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface LedgerRepository extends JpaRepository<Ledger, Long> {
-}
\ No newline at end of file
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface LedgerRepository extends JpaRepository<Ledger, LedgerId> {
+
+    /**
+     * The customer debit row of the payment the customer created with the given
+     * idempotency key. The predicates match the partial unique index
+     * uq_ledger_idempotency_key on (idempotency_key, user_id), and user_id prunes
+     * the lookup to one partition.
+     */
+    @Query("SELECT l FROM Ledger l WHERE l.idempotencyKey = :idempotencyKey AND l.userId = :userId "
+            + "AND l.status = 'DEBITED'")
+    Optional<Ledger> findPaymentByIdempotencyKey(String idempotencyKey, Long userId);
+
+    /**
+     * First page of a user's ledger rows in (createdAt, transactionId, leg) order.
+     */
+    List<Ledger> findByUserIdOrderByCreatedAtAscTransactionIdAscLegAsc(Long userId, Limit limit);
+
+    /**
+     * Next page of a user's ledger rows strictly after the given position. The
+     * user_id predicate prunes the scan to one partition, and the row value
+     * comparison seeks straight to the position in idx_ledger_user_created.
+     */
+    @Query("SELECT l FROM Ledger l WHERE l.userId = :userId "
+            + "AND (l.createdAt, l.transactionId, l.leg) > (:createdAt, :transactionId, :leg) "
+            + "ORDER BY l.createdAt ASC, l.transactionId ASC, l.leg ASC")
+    List<Ledger> findPageAfter(Long userId, Instant createdAt, String transactionId, short leg, Limit limit);
+
+    @Query("SELECT MIN(l.createdAt) FROM Ledger l")
+    Instant findOldestCreatedAt();
+
+    /**
+     * Rows created in [from, until) in archive segment order. Must be consumed
+     * inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT l FROM Ledger l WHERE l.createdAt >= :from AND l.createdAt < :until "
+            + "ORDER BY l.userId ASC, l.createdAt ASC, l.transactionId ASC, l.leg ASC")
+    Stream<Ledger> streamCreatedBetween(Instant from, Instant until);
+
+    @Modifying
+    @Query("DELETE FROM Ledger l WHERE l.createdAt >= :from AND l.createdAt < :until")
+    int deleteCreatedBetween(Instant from, Instant until);
+}
@@ -0,0 +1,36 @@
+package com.ewallet.payment.repository;
+
+import com.ewallet.payment.model.LedgerUserSummary;
+import com.ewallet.payment.model.LedgerUserSummaryId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public interface LedgerUserSummaryRepository extends JpaRepository<LedgerUserSummary, LedgerUserSummaryId> {
+
+    /**
+     * Add a payment's legs for one user to a shard of their summary. Returns 0
+     * when the shard has no row yet.
+     */
+    @Modifying
+    @Query("UPDATE LedgerUserSummary s SET s.totalDebited = s.totalDebited + :debited, "
+            + "s.totalCredited = s.totalCredited + :credited, s.debitCount = s.debitCount + :debits, "
+            + "s.creditCount = s.creditCount + :credits, "
+            + "s.lastActivityAt = CASE WHEN s.lastActivityAt > :at THEN s.lastActivityAt ELSE :at END "
+            + "WHERE s.userId = :userId AND s.shard = :shard")
+    int applyDelta(Long userId, short shard, BigDecimal debited, BigDecimal credited, long debits, long credits, Instant at);
+
+    /**
+     * Create an empty summary shard unless one already exists.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO ledger_user_summary (user_id, shard, total_debited, total_credited, debit_count, credit_count) "
+            + "VALUES (:userId, :shard, 0, 0, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int createIfAbsent(Long userId, short shard);
+
+    List<LedgerUserSummary> findByUserId(Long userId);
+}
@@ -0,0 +1,38 @@
+package com.ewallet.payment.repository;
+
+import com.ewallet.payment.model.PaymentSaga;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface PaymentSagaRepository extends JpaRepository<PaymentSaga, String> {
+
+    /**
+     * Move a saga from one state to another. Returns 0 when the saga is no longer
+     * in {@code from}, i.e. the payment thread and a recovery worker raced for it.
+     */
+    @Modifying
+    @Query("UPDATE PaymentSaga s SET s.state = :to, s.lastError = :lastError, s.nextAttemptAt = :nextAttemptAt, "
+            + "s.updatedAt = :now WHERE s.id = :id AND s.state = :from")
+    int transition(String id, String from, String to, String lastError, Instant nextAttemptAt, Instant now);
+
+    /**
+     * Lock the next due sagas in the given partitions that still need recovery.
+     * Rows locked by another payment instance are skipped (lock timeout -2 is
+     * Hibernate's SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT s FROM PaymentSaga s WHERE s.state IN ('STARTED', 'COMPENSATING') "
+            + "AND s.partitionNo IN :partitions AND s.nextAttemptAt <= :now ORDER BY s.nextAttemptAt")
+    List<PaymentSaga> lockDueBatch(Collection<Integer> partitions, Instant now, Pageable page);
+}
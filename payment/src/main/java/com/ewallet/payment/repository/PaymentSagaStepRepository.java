@@ -0,0 +1,7 @@
+package com.ewallet.payment.repository;
+
+import com.ewallet.payment.model.PaymentSagaStep;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PaymentSagaStepRepository extends JpaRepository<PaymentSagaStep, Long> {
+}
@@ -0,0 +1,167 @@
+package com.ewallet.payment.service;
+
+import com.ewallet.payment.dto.PaymentRequest;
+import com.ewallet.payment.dto.TransactionResponse;
+import com.ewallet.payment.exception.InvalidIdempotencyKeyException;
+import com.ewallet.payment.repository.LedgerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Runs the payment for an Idempotency-Key at most once per customer, matching
+ * the (idempotency_key, user_id) unique index on the ledger. Completed payments
+ * are answered from the idempotencyKeys cache (size and TTL bounded, see
+ * spring.cache.caffeine.spec) or, once evicted or when created by another
+ * instance, from the ledger row carrying the key; neither touches the wallet
+ * service. Concurrent requests of a customer with the same key wait for the one
+ * in flight and share its result. Only payments that are executed take a rate
+ * limit permit ({@link PaymentRateLimiter}), so replays are never refused with
+ * 429. Lookups are counted as payment.idempotency{result=executed|replayed|collapsed}.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String CACHE_NAME = "idempotencyKeys";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    PaymentService paymentService;
+
+    @Autowired
+    PaymentRateLimiter paymentRateLimiter;
+
+    @Autowired
+    LedgerRepository ledgerRepository;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, CompletableFuture<CompletedPayment>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * The amount is kept so a key reused for a different payment is rejected.
+     */
+    record CompletedPayment(BigDecimal amount, TransactionResponse response) {
+
+        TransactionResponse responseFor(PaymentRequest req) {
+            if (amount.compareTo(req.getAmount()) != 0) {
+                throw new InvalidIdempotencyKeyException("Idempotency-Key was already used for a different payment");
+            }
+            return response;
+        }
+    }
+
+    public TransactionResponse process(String idempotencyKey, PaymentRequest req) {
+        if (idempotencyKey == null) {
+            paymentRateLimiter.check(req);
+            return paymentService.processPayment(req, null);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String scopedKey = req.getCustomerId() + ":" + idempotencyKey;
+        CompletedPayment completed = findCompleted(scopedKey, idempotencyKey, req.getCustomerId());
+        if (completed != null) {
+            count("replayed");
+            return completed.responseFor(req);
+        }
+
+        CompletableFuture<CompletedPayment> execution = new CompletableFuture<>();
+        CompletableFuture<CompletedPayment> running = inFlight.putIfAbsent(scopedKey, execution);
+        if (running != null) {
+            count("collapsed");
+            return await(running).responseFor(req);
+        }
+        try {
+            // the previous holder of the key caches its result before releasing it
+            completed = findCompleted(scopedKey, idempotencyKey, req.getCustomerId());
+            if (completed == null) {
+                completed = execute(scopedKey, idempotencyKey, req);
+                count("executed");
+            } else {
+                count("replayed");
+            }
+            execution.complete(completed);
+            return completed.responseFor(req);
+        } catch (RuntimeException ex) {
+            execution.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(scopedKey, execution);
+        }
+    }
+
+    private CompletedPayment execute(String scopedKey, String idempotencyKey, PaymentRequest req) {
+        paymentRateLimiter.check(req);
+        try {
+            TransactionResponse response = paymentService.processPayment(req, idempotencyKey);
+            CompletedPayment completed = new CompletedPayment(req.getAmount(), response);
+            cache().put(scopedKey, completed);
+            return completed;
+        } catch (DataIntegrityViolationException ex) {
+            // another instance committed a payment for the same customer and key while this one ran
+            CompletedPayment completed = findCompleted(scopedKey, idempotencyKey, req.getCustomerId());
+            if (completed == null) {
+                throw ex;
+            }
+            // PaymentService compensated the duplicate's wallet posting before rethrowing
+            log.warn("Duplicate payment for Idempotency-Key {} of customer {} was reversed, answering with the committed one",
+                    idempotencyKey, req.getCustomerId());
+            return completed;
+        }
+    }
+
+    /**
+     * The customer's completed payment for the key; scopedKey is customerId:idempotencyKey.
+     */
+    private CompletedPayment findCompleted(String scopedKey, String idempotencyKey, Long customerId) {
+        CompletedPayment cached = cache().get(scopedKey, CompletedPayment.class);
+        if (cached != null) {
+            return cached;
+        }
+        return ledgerRepository.findPaymentByIdempotencyKey(idempotencyKey, customerId)
+                .map(ledger -> {
+                    CompletedPayment completed = new CompletedPayment(ledger.getAmount(),
+                            new TransactionResponse("SUCCESS", ledger.getTransactionId()));
+                    cache().put(scopedKey, completed);
+                    return completed;
+                })
+                .orElse(null);
+    }
+
+    private static CompletedPayment await(CompletableFuture<CompletedPayment> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CACHE_NAME);
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("payment.idempotency", "result", result).increment();
+    }
+}
@@ -0,0 +1,211 @@
+package com.ewallet.payment.service;
+
+import com.ewallet.archive.ColumnType;
+import com.ewallet.archive.SegmentSchema;
+import com.ewallet.archive.SegmentStore;
+import com.ewallet.archive.SegmentWriter;
+import com.ewallet.payment.dto.LedgerCursor;
+import com.ewallet.payment.model.Ledger;
+import com.ewallet.payment.model.LedgerArchiveSegment;
+import com.ewallet.payment.repository.LedgerArchiveSegmentRepository;
+import com.ewallet.payment.repository.LedgerRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.ewallet.archive.SegmentSchema.column;
+
+/**
+ * Moves ledger rows older than {@code payment.archive.retention} into segment
+ * files, one per {@code segment-span} window, sorted like a statement so a
+ * user's archived rows are read with one seek per segment. Ledger summaries are
+ * running totals and are left as they are.
+ * <p>
+ * Segments are written to local disk: run the archive on one instance, and give
+ * every instance that serves statements the same directory.
+ */
+@Component
+@Slf4j
+public class LedgerArchive {
+
+    private static final SegmentSchema SCHEMA = SegmentSchema.of(4,
+            column("user_id", ColumnType.LONG),
+            column("created_at", ColumnType.TIMESTAMP),
+            column("transaction_id", ColumnType.STRING),
+            column("leg", ColumnType.LONG),
+            column("amount", ColumnType.DECIMAL),
+            column("status", ColumnType.STRING),
+            column("idempotency_key", ColumnType.STRING));
+
+    private static final DateTimeFormatter SEGMENT_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss").withZone(ZoneOffset.UTC);
+
+    @Autowired
+    LedgerRepository ledgerRepository;
+
+    @Autowired
+    LedgerArchiveSegmentRepository segmentRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Value("${payment.archive.dir:var/archive/payment}")
+    Path directory;
+
+    @Value("${payment.archive.retention:365d}")
+    Duration retention;
+
+    @Value("${payment.archive.segment-span:7d}")
+    Duration segmentSpan;
+
+    @Value("${payment.archive.block-rows:4096}")
+    int blockRows;
+
+    private SegmentStore store;
+
+    @PostConstruct
+    void open() throws IOException {
+        store = new SegmentStore(directory);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        store.close();
+    }
+
+    @Scheduled(cron = "${payment.archive.cron:-}")
+    public void scheduledArchive() {
+        List<LedgerArchiveSegment> segments = archive();
+        if (!segments.isEmpty()) {
+            log.info("Archived {} ledger rows into {} segments",
+                    segments.stream().mapToLong(LedgerArchiveSegment::getRowCount).sum(), segments.size());
+        }
+    }
+
+    /**
+     * Archive every full window older than the retention. Returns the segments written.
+     */
+    public List<LedgerArchiveSegment> archive() {
+        Instant horizon = Instant.now().minus(retention);
+        Instant from = segmentRepository.findArchivedUntil();
+        if (from == null) {
+            Instant oldest = ledgerRepository.findOldestCreatedAt();
+            if (oldest == null) {
+                return List.of();
+            }
+            from = oldest.truncatedTo(ChronoUnit.DAYS);
+        }
+        List<LedgerArchiveSegment> written = new ArrayList<>();
+        while (!from.plus(segmentSpan).isAfter(horizon)) {
+            Instant until = from.plus(segmentSpan);
+            written.add(archive(from, until));
+            from = until;
+        }
+        return written;
+    }
+
+    /**
+     * Archived rows of the user after the cursor (or from the first row when it
+     * is null) in statement order, at most {@code limit}.
+     */
+    public List<Ledger> page(Long userId, LedgerCursor after, int limit) {
+        List<LedgerArchiveSegment> segments = after == null ? segmentRepository.findAllByOrderByCoveredFromAsc()
+                : segmentRepository.findByCoveredUntilGreaterThanOrderByCoveredFromAsc(after.getCreatedAt());
+        Object[] from = after == null ? new Object[]{userId}
+                : new Object[]{userId, after.getCreatedAt(), after.getTransactionId(), (long) after.getLeg()};
+        List<Ledger> page = new ArrayList<>(limit);
+        for (LedgerArchiveSegment segment : segments) {
+            if (segment.getRowCount() == 0) {
+                continue;
+            }
+            try (Stream<Object[]> rows = store.reader(segment.getName()).scan(from)) {
+                rows.takeWhile(row -> userId.equals(row[0]))
+                        .filter(row -> after == null || !(row[1].equals(from[1]) && row[2].equals(from[2])
+                                && row[3].equals(from[3])))
+                        .limit(limit - page.size())
+                        .forEach(row -> page.add(toLedger(row)));
+            }
+            if (page.size() == limit) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    private LedgerArchiveSegment archive(Instant from, Instant until) {
+        String name = "ledger-" + SEGMENT_TIME.format(from) + "-" + SEGMENT_TIME.format(until) + ".seg";
+        long rows;
+        long size;
+        try (SegmentWriter writer = store.create(name, SCHEMA, blockRows)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Ledger> ledger = ledgerRepository.streamCreatedBetween(from, until)) {
+                    for (Ledger entry : (Iterable<Ledger>) ledger::iterator) {
+                        writer.append(entry.getUserId(), entry.getCreatedAt(), entry.getTransactionId(),
+                                (long) entry.getLeg(), entry.getAmount(), entry.getStatus(), entry.getIdempotencyKey());
+                        entityManager.detach(entry);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            rows = writer.rows();
+            size = writer.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write archive segment " + name, e);
+        }
+
+        try {
+            LedgerArchiveSegment segment = new LedgerArchiveSegment(name, from, until, rows, size, Instant.now());
+            return transactionTemplate.execute(status -> {
+                int deleted = ledgerRepository.deleteCreatedBetween(from, until);
+                if (deleted != rows) {
+                    throw new IllegalStateException("Ledger rows in " + name + " changed while archiving: wrote " + rows
+                            + ", deleting " + deleted);
+                }
+                log.debug("Archived {} ledger rows into {} ({} bytes)", rows, name, size);
+                return segmentRepository.save(segment);
+            });
+        } catch (RuntimeException e) {
+            try {
+                store.delete(name);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    private static Ledger toLedger(Object[] row) {
+        Ledger ledger = new Ledger();
+        ledger.setUserId((Long) row[0]);
+        ledger.setCreatedAt((Instant) row[1]);
+        ledger.setTransactionId((String) row[2]);
+        ledger.setLeg(((Long) row[3]).shortValue());
+        ledger.setAmount((BigDecimal) row[4]);
+        ledger.setStatus((String) row[5]);
+        ledger.setIdempotencyKey((String) row[6]);
+        return ledger;
+    }
+}
@@ -0,0 +1,117 @@
+package com.ewallet.payment.service;
+
+import com.ewallet.payment.dto.LedgerCursor;
+import com.ewallet.payment.dto.LedgerPage;
+import com.ewallet.payment.model.Ledger;
+import com.ewallet.payment.model.LedgerUserSummary;
+import com.ewallet.payment.repository.LedgerRepository;
+import com.ewallet.payment.repository.LedgerUserSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Writes ledger rows together with the per-user summaries and serves users'
+ * statements and totals.
+ */
+@Service
+public class LedgerService {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    LedgerRepository ledgerRepository;
+
+    @Autowired
+    LedgerUserSummaryRepository summaryRepository;
+
+    @Autowired
+    LedgerArchive ledgerArchive;
+
+    @Value("${payment.ledger.summary.sharded-users:}")
+    Set<Long> shardedUsers;
+
+    @Value("${payment.ledger.summary.shards:8}")
+    int summaryShards;
+
+    /**
+     * Insert a payment's ledger rows and add them to their users' summaries.
+     * Must run inside the payment's transaction. Summaries are updated in user
+     * order so concurrent payments between the same users cannot deadlock.
+     * Sharded users' totals go to the shard picked by the transaction id.
+     */
+    public void record(List<Ledger> entries) {
+        ledgerRepository.saveAll(entries);
+
+        Map<Long, LedgerUserSummary> deltas = new TreeMap<>();
+        for (Ledger entry : entries) {
+            LedgerUserSummary delta = deltas.computeIfAbsent(entry.getUserId(), userId -> {
+                LedgerUserSummary summary = LedgerUserSummary.empty(userId);
+                summary.setShard(summaryShard(userId, entry.getTransactionId()));
+                return summary;
+            });
+            if ("DEBITED".equals(entry.getStatus())) {
+                delta.setTotalDebited(delta.getTotalDebited().add(entry.getAmount()));
+                delta.setDebitCount(delta.getDebitCount() + 1);
+            } else {
+                delta.setTotalCredited(delta.getTotalCredited().add(entry.getAmount()));
+                delta.setCreditCount(delta.getCreditCount() + 1);
+            }
+            delta.setLastActivityAt(entry.getCreatedAt());
+        }
+        deltas.values().forEach(this::applyToSummary);
+    }
+
+    private void applyToSummary(LedgerUserSummary delta) {
+        if (apply(delta) == 0) {
+            summaryRepository.createIfAbsent(delta.getUserId(), delta.getShard());
+            apply(delta);
+        }
+    }
+
+    private short summaryShard(Long userId, String transactionId) {
+        return shardedUsers.contains(userId) ? (short) Math.floorMod(transactionId.hashCode(), summaryShards) : 0;
+    }
+
+    private int apply(LedgerUserSummary delta) {
+        return summaryRepository.applyDelta(delta.getUserId(), delta.getShard(), delta.getTotalDebited(), delta.getTotalCredited(),
+                delta.getDebitCount(), delta.getCreditCount(), delta.getLastActivityAt());
+    }
+
+    /**
+     * One page of a user's ledger rows, starting after the cursor or at the
+     * beginning when it is null.
+     */
+    public LedgerPage statement(Long userId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        LedgerCursor after = cursor == null ? null : LedgerCursor.decode(cursor);
+        // the archive holds the oldest rows, the table continues after its last one
+        List<Ledger> entries = new ArrayList<>(ledgerArchive.page(userId, after, pageSize));
+        if (!entries.isEmpty()) {
+            after = LedgerCursor.after(entries.get(entries.size() - 1));
+        }
+        if (entries.size() < pageSize) {
+            Limit rest = Limit.of(pageSize - entries.size());
+            entries.addAll(after == null ? ledgerRepository.findByUserIdOrderByCreatedAtAscTransactionIdAscLegAsc(userId, rest)
+                    : ledgerRepository.findPageAfter(userId, after.getCreatedAt(), after.getTransactionId(),
+                    after.getLeg(), rest));
+        }
+
+        String nextCursor = entries.size() < pageSize ? null
+                : LedgerCursor.after(entries.get(entries.size() - 1)).encode();
+        return new LedgerPage(entries, nextCursor);
+    }
+
+    public LedgerUserSummary summary(Long userId) {
+        return summaryRepository.findByUserId(userId).stream()
+                .reduce(LedgerUserSummary.empty(userId), LedgerUserSummary::add);
+    }
+}
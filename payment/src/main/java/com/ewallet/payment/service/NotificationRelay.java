@@ -0,0 +1,103 @@
+package com.ewallet.payment.service;
+
+import com.ewallet.payment.dto.NotificationRequest;
+import com.ewallet.payment.model.NotificationOutbox;
+import com.ewallet.payment.repository.NotificationOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Drains the notification outbox to the notification service in the background,
+ * so payments never wait on notification delivery. Each batch post is timed as
+ * payment.notification.relay{outcome=success|failure}.
+ */
+@Component
+@Slf4j
+public class NotificationRelay {
+
+    @Autowired
+    NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    @Qualifier("notificationRestTemplate")
+    RestTemplate notificationRestTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${payment.outbox.batch-size:100}")
+    int batchSize;
+
+    @Value("${payment.outbox.max-attempts:10}")
+    int maxAttempts;
+
+    @Value("${payment.outbox.retry-backoff:5s}")
+    Duration retryBackoff;
+
+    @Scheduled(fixedDelayString = "${payment.outbox.relay-interval-ms:500}")
+    public void relay() {
+        // keep draining while full batches come back, then wait for the next tick
+        while (relayBatch() == batchSize) {
+            log.debug("Outbox batch full, draining again");
+        }
+    }
+
+    int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<NotificationOutbox> batch = outboxRepository.lockDueBatch(now, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String outcome = "success";
+            try {
+                List<NotificationRequest> requests = batch.stream().map(this::toRequest).toList();
+                notificationRestTemplate.postForEntity("/notifications/send-batch", requests, Void.class);
+                for (NotificationOutbox outbox : batch) {
+                    outbox.setStatus(NotificationOutbox.SENT);
+                    outbox.setSentAt(now);
+                }
+            } catch (RestClientException ex) {
+                outcome = "failure";
+                log.warn("Failed to send {} notifications: {}", batch.size(), ex.getMessage());
+                batch.forEach(outbox -> markFailedAttempt(outbox, now, ex));
+            } finally {
+                sample.stop(meterRegistry.timer("payment.notification.relay", "outcome", outcome));
+            }
+            return batch.size();
+        });
+        return relayed == null ? 0 : relayed;
+    }
+
+    private void markFailedAttempt(NotificationOutbox outbox, Instant now, RestClientException ex) {
+        outbox.setAttempts(outbox.getAttempts() + 1);
+        if (outbox.getAttempts() >= maxAttempts) {
+            outbox.setStatus(NotificationOutbox.FAILED);
+            log.error("Giving up on notification {} for transaction {}: {}", outbox.getId(), outbox.getTransactionId(), ex.getMessage());
+        } else {
+            outbox.setNextAttemptAt(now.plus(retryBackoff.multipliedBy(outbox.getAttempts())));
+        }
+    }
+
+    private NotificationRequest toRequest(NotificationOutbox outbox) {
+        return new NotificationRequest(outbox.getUserId(), outbox.getAmount(), outbox.getTransactionStatus(), outbox.getMessage());
+    }
+}
@@ -0,0 +1,107 @@
+package com.ewallet.payment.service;
+
+import com.ewallet.payment.config.RateLimitProperties;
+import com.ewallet.payment.dto.PaymentRequest;
+import com.ewallet.ratelimit.RateLimitExceededException;
+import com.ewallet.ratelimit.RateLimitTier;
+import com.ewallet.ratelimit.RateLimiter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits payments per customer and per merchant, each by the tier it is
+ * assigned in {@link RateLimitProperties}. A payment needs a permit from both;
+ * one refused by the merchant's bucket has still used up the customer's permit.
+ */
+@Component
+public class PaymentRateLimiter {
+
+    public static final String CUSTOMER = "customer";
+    public static final String MERCHANT = "merchant";
+
+    @Autowired
+    RateLimiter rateLimiter;
+
+    @Autowired
+    RateLimitProperties properties;
+
+    private final Map<String, RateLimitTier> tiers = new LinkedHashMap<>();
+
+    private final Map<String, TierAssignment> scopes = new HashMap<>();
+
+    record TierAssignment(RateLimitTier tier, Map<Long, RateLimitTier> accounts) {
+
+        RateLimitTier of(Long accountId) {
+            return accounts.getOrDefault(accountId, tier);
+        }
+    }
+
+    @PostConstruct
+    void resolveTiers() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        tiers.putAll(properties.createTiers());
+        scopes.put(CUSTOMER, assignment(CUSTOMER, properties.getCustomer()));
+        scopes.put(MERCHANT, assignment(MERCHANT, properties.getMerchant()));
+    }
+
+    /**
+     * Take a permit for the payment's customer and merchant, or throw
+     * {@link RateLimitExceededException} when either has none left.
+     */
+    public void check(PaymentRequest req) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        acquire(CUSTOMER, req.getCustomerId());
+        acquire(MERCHANT, req.getMerchantAccountNo());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public Collection<RateLimitTier> tiers() {
+        return tiers.values();
+    }
+
+    /**
+     * Permits the account could take now, null for an unknown scope or when
+     * rate limits are disabled.
+     */
+    public Integer available(String scope, Long accountId) {
+        TierAssignment assignment = scopes.get(scope);
+        return assignment == null ? null : rateLimiter.available(scope + ":" + accountId, assignment.of(accountId));
+    }
+
+    private void acquire(String scope, Long accountId) {
+        long waitNanos = rateLimiter.tryAcquire(scope + ":" + accountId, scopes.get(scope).of(accountId));
+        if (waitNanos > 0) {
+            long retryAfterSeconds = TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1;
+            throw new RateLimitExceededException("Too many payments for " + scope + " " + accountId, retryAfterSeconds);
+        }
+    }
+
+    private TierAssignment assignment(String scope, RateLimitProperties.Scope properties) {
+        Map<Long, RateLimitTier> accounts = new HashMap<>();
+        properties.getAccounts().forEach((accountId, tier) -> accounts.put(accountId, tier(scope, tier)));
+        return new TierAssignment(tier(scope, properties.getTier()), accounts);
+    }
+
+    private RateLimitTier tier(String scope, String name) {
+        RateLimitTier tier = tiers.get(name);
+        if (tier == null) {
+            throw new IllegalStateException("Unknown rate limit tier '" + name + "' for " + scope
+                    + ", add it under payment.rate-limit.tiers");
+        }
+        return tier;
+    }
+}
@@ -0,0 +1,164 @@
+package com.ewallet.payment.service;
+
+import com.ewallet.payment.dto.PaymentRequest;
+import com.ewallet.payment.model.PaymentSaga;
+import com.ewallet.payment.model.PaymentSagaStep;
+import com.ewallet.payment.repository.PaymentSagaRepository;
+import com.ewallet.payment.repository.PaymentSagaStepRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Persists the saga of each payment (see {@link PaymentSaga}) and compensates
+ * payments whose wallet batch may have been posted without the payment being
+ * committed locally, by reversing the batch in the wallet service. Sagas that
+ * cannot be compensated inline are retried by {@link SagaRecoveryWorker}.
+ * Compensations are counted as
+ * payment.saga.compensations{outcome=compensated|deferred|retry|failed}.
+ */
+@Service
+@Slf4j
+public class PaymentSagaService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    PaymentSagaRepository sagaRepository;
+
+    @Autowired
+    PaymentSagaStepRepository stepRepository;
+
+    @Autowired
+    @Qualifier("walletRestTemplate")
+    RestTemplate walletRestTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${payment.saga.partition-count:16}")
+    int partitionCount;
+
+    @Value("${payment.saga.stale-after:10s}")
+    Duration staleAfter;
+
+    @Value("${payment.saga.retry-backoff:2s}")
+    Duration retryBackoff;
+
+    /**
+     * Record the payment before its batch is posted. If nothing moves the saga on
+     * within payment.saga.stale-after, recovery treats the payment as abandoned.
+     */
+    public void start(String transactionId, PaymentRequest req, BigDecimal fee, String idempotencyKey) {
+        Instant now = Instant.now();
+        PaymentSaga saga = new PaymentSaga();
+        saga.setId(transactionId);
+        saga.setCustomerId(req.getCustomerId());
+        saga.setMerchantAccountNo(req.getMerchantAccountNo());
+        saga.setAmount(req.getAmount());
+        saga.setFee(fee);
+        saga.setIdempotencyKey(idempotencyKey);
+        saga.setState(PaymentSaga.STARTED);
+        saga.setPartitionNo(Math.floorMod(transactionId.hashCode(), partitionCount));
+        saga.setNextAttemptAt(now.plus(staleAfter));
+        saga.setCreatedAt(now);
+        saga.setUpdatedAt(now);
+        sagaRepository.save(saga);
+    }
+
+    /**
+     * Complete the saga as part of the local payment transaction, failing that
+     * transaction if recovery has already started compensating the payment.
+     */
+    public void complete(String transactionId) {
+        Instant now = Instant.now();
+        if (sagaRepository.transition(transactionId, PaymentSaga.STARTED, PaymentSaga.COMPLETED, null, null, now) != 1) {
+            throw new IllegalStateException("Payment " + transactionId + " is already being compensated");
+        }
+        stepRepository.saveAll(List.of(
+                step(transactionId, PaymentSagaStep.WALLET_POSTING, PaymentSagaStep.SUCCEEDED, null, now),
+                step(transactionId, PaymentSagaStep.LOCAL_COMMIT, PaymentSagaStep.SUCCEEDED, null, now)));
+    }
+
+    /**
+     * The wallet refused the batch, so there is nothing to compensate.
+     */
+    public void fail(String transactionId, RuntimeException cause) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Instant now = Instant.now();
+            if (sagaRepository.transition(transactionId, PaymentSaga.STARTED, PaymentSaga.FAILED, message(cause), null, now) == 1) {
+                stepRepository.save(step(transactionId, PaymentSagaStep.WALLET_POSTING, PaymentSagaStep.FAILED, message(cause), now));
+            }
+        });
+    }
+
+    /**
+     * The batch may be posted in the wallet but the payment will not complete:
+     * reverse it now. Never throws, so the caller can rethrow the original
+     * failure; whatever is left undone here is picked up by recovery.
+     */
+    public void compensate(String transactionId, String failedStep, RuntimeException cause) {
+        String error = message(cause);
+        try {
+            Boolean claimed = transactionTemplate.execute(status -> {
+                Instant now = Instant.now();
+                if (sagaRepository.transition(transactionId, PaymentSaga.STARTED, PaymentSaga.COMPENSATING, error,
+                        now.plus(retryBackoff), now) != 1) {
+                    return false;
+                }
+                stepRepository.save(step(transactionId, failedStep, PaymentSagaStep.FAILED, error, now));
+                return true;
+            });
+            if (!Boolean.TRUE.equals(claimed)) {
+                return;
+            }
+            reverse(transactionId);
+            transactionTemplate.executeWithoutResult(status -> {
+                Instant now = Instant.now();
+                if (sagaRepository.transition(transactionId, PaymentSaga.COMPENSATING, PaymentSaga.COMPENSATED, error, null, now) == 1) {
+                    stepRepository.save(step(transactionId, PaymentSagaStep.COMPENSATION, PaymentSagaStep.SUCCEEDED, null, now));
+                }
+            });
+            count("compensated");
+            log.info("Payment {} compensated after {} failed: {}", transactionId, failedStep, error);
+        } catch (RuntimeException ex) {
+            count("deferred");
+            log.warn("Compensation of payment {} deferred to recovery: {}", transactionId, ex.getMessage());
+        }
+    }
+
+    /**
+     * Reverse the payment's batch in the wallet. The wallet reverses a reference
+     * at most once and cancels references it has not seen, so this is safe to repeat.
+     */
+    void reverse(String transactionId) throws RestClientException {
+        walletRestTemplate.postForObject("/api/v1/batch/{reference}/reversal", null, String.class, transactionId);
+    }
+
+    PaymentSagaStep step(String sagaId, String step, String outcome, String detail, Instant now) {
+        return new PaymentSagaStep(sagaId, step, outcome, detail, now);
+    }
+
+    void count(String outcome) {
+        meterRegistry.counter("payment.saga.compensations", "outcome", outcome).increment();
+    }
+
+    static String message(Exception ex) {
+        String message = ex.getClass().getSimpleName() + ": " + ex.getMessage();
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
@@ -1,18 +1,25 @@
 package com.ewallet.payment.service;
 
 import com.ewallet.payment.dto.BalanceResponse;
-import com.ewallet.payment.dto.NotificationRequest;
 import com.ewallet.payment.dto.PaymentRequest;
+import com.ewallet.payment.dto.PostingLeg;
+import com.ewallet.payment.dto.PostingRequest;
 import com.ewallet.payment.dto.TransactionResponse;
 import com.ewallet.payment.exception.DebitFailedException;
 import com.ewallet.payment.exception.InsufficientFundException;
 import com.ewallet.payment.exception.ServiceUnavailableException;
 import com.ewallet.payment.model.Ledger;
-import com.ewallet.payment.repository.LedgerRepository;
+import com.ewallet.payment.model.NotificationOutbox;
+import com.ewallet.payment.model.PaymentSagaStep;
+import com.ewallet.payment.repository.NotificationOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
@@ -20,54 +27,147 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Instant;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
 public class PaymentService {
 
     @Autowired
-    RestTemplate restTemplate;
+    @Qualifier("walletRestTemplate")
+    RestTemplate walletRestTemplate;
 
     @Autowired
-    LedgerRepository ledgerRepository;
-
-    @Transactional
-    public TransactionResponse processPayment(PaymentRequest req) {
-        BalanceResponse balanceResponse = getBalanceDetails(req);
-        boolean sufficient = validateTransaction(req, balanceResponse);
-        if (!sufficient) {
-            throw new InsufficientFundException("The current wallet amount %s is insufficient for this transaction".formatted(req.getAmount()));
-        }
+    NotificationOutboxRepository outboxRepository;
 
-        BigDecimal fee = calculateWalletFee(req.getAmount());
-        BigDecimal netAmount = req.getAmount().subtract(fee);
+    @Autowired
+    LedgerService ledgerService;
 
+    @Autowired
+    PaymentSagaService sagaService;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    /**
+     * Time spent in each stage is recorded as payment.process.stage{stage, outcome}
+     * and the whole payment as payment.process{outcome}; outcome is success,
+     * insufficient_funds, debit_failed, wallet_unavailable or error. A non-null
+     * idempotencyKey is stored on the ledger rows, see {@link IdempotencyService}.
+     *
+     * <p>The wallet batch and the local ledger cannot share a transaction, so the
+     * payment runs as a saga ({@link PaymentSagaService}): it is recorded before
+     * the batch is posted under the transaction id, and if the wallet's answer is
+     * lost or the local commit fails the batch is reversed again.
+     */
+    public TransactionResponse processPayment(PaymentRequest req, String idempotencyKey) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_SUCCESS;
         try {
-            Map<String, Object> debitReq = Map.of("userId", req.getCustomerId(), "amount", req.getAmount());
-            restTemplate.postForObject("http://localhost:8081/api/wallet/debit", debitReq, Void.class);
-        } catch (RestClientException ex) {
-            throw new DebitFailedException("Failed to debit wallet: " + ex.getMessage(), ex);
+            BalanceResponse balanceResponse = timeStage("balance_check", () -> getBalanceDetails(req));
+            boolean sufficient = validateTransaction(req, balanceResponse);
+            if (!sufficient) {
+                throw new InsufficientFundException("The current wallet amount %s is insufficient for this transaction".formatted(req.getAmount()));
+            }
+
+            BigDecimal fee = calculateWalletFee(req.getAmount());
+            BigDecimal netAmount = req.getAmount().subtract(fee);
+            String transactionId = UUID.randomUUID().toString();
+
+            timeStage("saga_start", () -> {
+                sagaService.start(transactionId, req, fee, idempotencyKey);
+                return null;
+            });
+
+            // debit customer, credit merchant and credit fee in one atomic wallet call
+            timeStage("wallet_posting", () -> {
+                try {
+                    return walletRestTemplate.postForObject("/api/v1/batch", buildPostingRequest(req, transactionId, fee, netAmount), String.class);
+                } catch (HttpClientErrorException ex) {
+                    // the wallet rejected the batch, nothing was posted
+                    sagaService.fail(transactionId, ex);
+                    throw new DebitFailedException("Failed to post payment to wallet: " + ex.getMessage(), ex);
+                } catch (RestClientException ex) {
+                    // timeouts and 5xx leave it open whether the batch was posted
+                    sagaService.compensate(transactionId, PaymentSagaStep.WALLET_POSTING, ex);
+                    throw new DebitFailedException("Failed to post payment to wallet: " + ex.getMessage(), ex);
+                }
+            });
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    timeStage("ledger_save", () -> {
+                        ledgerService.record(buildLedgerEntries(req, transactionId, idempotencyKey, fee, netAmount));
+                        return null;
+                    });
+                    // notifications are delivered by NotificationRelay once this transaction commits
+                    timeStage("outbox_save", () -> outboxRepository.saveAll(List.of(
+                            outboxEntry(transactionId, req.getCustomerId(), req.getAmount(),
+                                    "Your payment of " + req.getAmount() + " was successful."),
+                            outboxEntry(transactionId, req.getMerchantAccountNo(), netAmount,
+                                    "You have received a payment of " + netAmount + "."))));
+                    sagaService.complete(transactionId);
+                });
+            } catch (RuntimeException ex) {
+                sagaService.compensate(transactionId, PaymentSagaStep.LOCAL_COMMIT, ex);
+                throw ex;
+            }
+            // 6) Return response
+            return new TransactionResponse("SUCCESS", transactionId);
+        } catch (RuntimeException ex) {
+            outcome = outcome(ex);
+            throw ex;
+        } finally {
+            sample.stop(meterRegistry.timer("payment.process", "outcome", outcome));
         }
+    }
 
+    private <T> T timeStage(String stage, Supplier<T> body) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_SUCCESS;
         try {
-            Map<String, Object> creditMerchantReq = Map.of("userId", req.getMerchantAccountNo(), "amount", netAmount);
-            restTemplate.postForObject("http://localhost:8081/api/wallet/credit", creditMerchantReq, Void.class);
+            return body.get();
+        } catch (RuntimeException ex) {
+            outcome = outcome(ex);
+            throw ex;
+        } finally {
+            sample.stop(meterRegistry.timer("payment.process.stage", "stage", stage, "outcome", outcome));
+        }
+    }
 
-            Map<String, Object> creditFeeReq = Map.of("userId", getWalletFeeAccountId(), "amount", fee);
-            restTemplate.postForObject("http://localhost:8081/api/wallet/credit", creditFeeReq, Void.class);
-        } catch (RestClientException ex) {
-            throw new RuntimeException("Failed to credit accounts: " + ex.getMessage(), ex);
+    private static String outcome(RuntimeException ex) {
+        if (ex instanceof InsufficientFundException) {
+            return "insufficient_funds";
+        }
+        if (ex instanceof DebitFailedException) {
+            return "debit_failed";
+        }
+        if (ex instanceof ServiceUnavailableException || ex instanceof RestClientException) {
+            return "wallet_unavailable";
         }
+        return "error";
+    }
 
-        String transactionId = UUID.randomUUID().toString();
+    PostingRequest buildPostingRequest(PaymentRequest req, String transactionId, BigDecimal fee, BigDecimal netAmount) {
+        return new PostingRequest(transactionId, List.of(
+                new PostingLeg(String.valueOf(req.getCustomerId()), PostingLeg.DEBIT, req.getAmount()),
+                new PostingLeg(String.valueOf(req.getMerchantAccountNo()), PostingLeg.CREDIT, netAmount),
+                new PostingLeg(String.valueOf(getWalletFeeAccountId()), PostingLeg.CREDIT, fee)));
+    }
 
+    List<Ledger> buildLedgerEntries(PaymentRequest req, String transactionId, String idempotencyKey,
+                                    BigDecimal fee, BigDecimal netAmount) {
         Ledger customerLedger = new Ledger();
         customerLedger.setUserId(req.getCustomerId());
         customerLedger.setAmount(req.getAmount());
         customerLedger.setStatus("DEBITED");
         customerLedger.setTransactionId(transactionId);
+        customerLedger.setLeg(Ledger.CUSTOMER_LEG);
+        customerLedger.setIdempotencyKey(idempotencyKey);
         customerLedger.setCreatedAt(Instant.now());
 
         Ledger merchantLedger = new Ledger();
@@ -75,6 +175,8 @@ public class PaymentService {
         merchantLedger.setAmount(netAmount);
         merchantLedger.setStatus("CREDITED");
         merchantLedger.setTransactionId(transactionId);
+        merchantLedger.setLeg(Ledger.MERCHANT_LEG);
+        merchantLedger.setIdempotencyKey(idempotencyKey);
         merchantLedger.setCreatedAt(Instant.now());
 
         Ledger feeLedger = new Ledger();
@@ -82,37 +184,32 @@ public class PaymentService {
         feeLedger.setAmount(fee);
         feeLedger.setStatus("CREDITED");
         feeLedger.setTransactionId(transactionId);
+        feeLedger.setLeg(Ledger.FEE_LEG);
+        feeLedger.setIdempotencyKey(idempotencyKey);
         feeLedger.setCreatedAt(Instant.now());
 
-        ledgerRepository.saveAll(List.of(customerLedger, merchantLedger, feeLedger));
-        try {
-            NotificationRequest customerNotification = new NotificationRequest();
-            customerNotification.setUserId(req.getCustomerId().toString());
-            customerNotification.setTransactionStatus("SUCCESS");
-            customerNotification.setAmount(req.getAmount().doubleValue());
-            customerNotification.setMessage("Your payment of " + req.getAmount() + " was successful.");
-            restTemplate.postForEntity("http://localhost:8083/notifications/send", customerNotification, Void.class);
-
-            NotificationRequest merchantNotification = new NotificationRequest();
-            merchantNotification.setUserId(req.getMerchantAccountNo().toString());
-            merchantNotification.setTransactionStatus("SUCCESS");
-            merchantNotification.setAmount(netAmount.doubleValue());
-            merchantNotification.setMessage("You have received a payment of " + netAmount + ".");
-            restTemplate.postForEntity("http://localhost:8083/notifications/send", merchantNotification, Void.class);
-        } catch (RestClientException ex) {
-            // Notification failures shouldn't prevent transaction success; log and continue
-            log.warn("Failed to send notification(s) for transaction {}: {}", transactionId, ex.getMessage());
-        }
-        // 6) Return response
-        return new TransactionResponse("SUCCESS", transactionId);
+        return List.of(customerLedger, merchantLedger, feeLedger);
+    }
+
+    private NotificationOutbox outboxEntry(String transactionId, Long userId, BigDecimal amount, String message) {
+        NotificationOutbox outbox = new NotificationOutbox();
+        outbox.setTransactionId(transactionId);
+        outbox.setUserId(userId.toString());
+        outbox.setAmount(amount.doubleValue());
+        outbox.setTransactionStatus("SUCCESS");
+        outbox.setMessage(message);
+        outbox.setStatus(NotificationOutbox.PENDING);
+        outbox.setCreatedAt(Instant.now());
+        outbox.setNextAttemptAt(outbox.getCreatedAt());
+        return outbox;
     }
 
-    private boolean validateTransaction(PaymentRequest req, BalanceResponse resp) {
+    boolean validateTransaction(PaymentRequest req, BalanceResponse resp) {
         return resp.getBalance().compareTo(req.getAmount()) >= 0 && resp.getCurrency().equals(req.getProductCurrency());
     }
 
     private BalanceResponse getBalanceDetails(PaymentRequest req) {
-        BalanceResponse resp = restTemplate.getForObject("http://localhost:8081/api/wallet/check-balance/" + req.getCustomerId(), BalanceResponse.class);
+        BalanceResponse resp = walletRestTemplate.getForObject("/api/v1/check-balance/{userId}", BalanceResponse.class, req.getCustomerId());
         if (resp == null) {
             throw new ServiceUnavailableException("No response from wallet service");
         }
@@ -121,8 +218,9 @@ public class PaymentService {
 
     private static final BigDecimal WALLET_FEE_PERCENT = new BigDecimal("0.02");
     private static final Long WALLET_FEE_ACCOUNT = 1234567890L;
+    private static final String OUTCOME_SUCCESS = "success";
 
-    private BigDecimal calculateWalletFee(BigDecimal amount) {
+    BigDecimal calculateWalletFee(BigDecimal amount) {
         if (amount == null) return BigDecimal.ZERO;
         return amount.multiply(WALLET_FEE_PERCENT).setScale(2, RoundingMode.HALF_UP);
     }
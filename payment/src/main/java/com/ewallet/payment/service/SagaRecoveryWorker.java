@@ -0,0 +1,192 @@
+package com.ewallet.payment.service;
+
+import com.ewallet.payment.model.PaymentSaga;
+import com.ewallet.payment.model.PaymentSagaStep;
+import com.ewallet.payment.repository.PaymentSagaRepository;
+import com.ewallet.payment.repository.PaymentSagaStepRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+/**
+ * Compensates payments that were abandoned between posting to the wallet and
+ * committing locally (STARTED for longer than payment.saga.stale-after) and
+ * retries compensations that failed inline, with a linear backoff.
+ *
+ * <p>Sagas are spread over payment.saga.partition-count partitions by
+ * transaction id. Each instance polls the partitions listed in
+ * payment.saga.worker.partitions (all when empty) and skips rows locked by
+ * other instances, so instances can split the partitions between them or
+ * overlap without compensating a payment twice.
+ *
+ * <p>A batch is claimed in one short transaction that moves its sagas to
+ * COMPENSATING and leases them for payment.saga.claim-lease by pushing out
+ * nextAttemptAt. The wallet reversals run with no transaction open, and each
+ * outcome is recorded in a transaction of its own. A saga whose outcome is never
+ * recorded, e.g. because the instance died, is due again once its lease ends.
+ */
+@Component
+@Slf4j
+public class SagaRecoveryWorker {
+
+    @Autowired
+    PaymentSagaService sagaService;
+
+    @Autowired
+    PaymentSagaRepository sagaRepository;
+
+    @Autowired
+    PaymentSagaStepRepository stepRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Value("${payment.saga.partition-count:16}")
+    int partitionCount;
+
+    @Value("${payment.saga.worker.partitions:}")
+    String ownedPartitions;
+
+    @Value("${payment.saga.batch-size:50}")
+    int batchSize;
+
+    @Value("${payment.saga.max-attempts:20}")
+    int maxAttempts;
+
+    @Value("${payment.saga.retry-backoff:2s}")
+    Duration retryBackoff;
+
+    @Value("${payment.saga.claim-lease:60s}")
+    Duration claimLease;
+
+    private List<Integer> partitions;
+
+    @PostConstruct
+    void init() {
+        partitions = parsePartitions(ownedPartitions, partitionCount);
+        log.info("Saga recovery polling partitions {} of {}", partitions, partitionCount);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.saga.recovery-interval-ms:1000}")
+    public void recover() {
+        while (recoverBatch() == batchSize) {
+            log.debug("Saga batch full, recovering again");
+        }
+    }
+
+    int recoverBatch() {
+        Instant now = Instant.now();
+        List<String> claimed = transactionTemplate.execute(status -> claim(now));
+        if (claimed == null) {
+            return 0;
+        }
+        claimed.forEach(this::compensate);
+        return claimed.size();
+    }
+
+    private List<String> claim(Instant now) {
+        List<PaymentSaga> batch = sagaRepository.lockDueBatch(partitions, now, PageRequest.of(0, batchSize));
+        for (PaymentSaga saga : batch) {
+            if (PaymentSaga.STARTED.equals(saga.getState())) {
+                // the payment thread died or hung after starting the saga; the batch may be posted
+                saga.setState(PaymentSaga.COMPENSATING);
+                stepRepository.save(sagaService.step(saga.getId(), PaymentSagaStep.LOCAL_COMMIT, PaymentSagaStep.FAILED,
+                        "Not completed within " + Duration.between(saga.getCreatedAt(), now), now));
+            }
+            saga.setNextAttemptAt(now.plus(claimLease));
+            saga.setUpdatedAt(now);
+        }
+        return batch.stream().map(PaymentSaga::getId).toList();
+    }
+
+    private void compensate(String sagaId) {
+        try {
+            sagaService.reverse(sagaId);
+        } catch (RestClientException ex) {
+            transactionTemplate.executeWithoutResult(status -> recordFailure(sagaId, ex));
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> recordCompensated(sagaId));
+    }
+
+    private void recordCompensated(String sagaId) {
+        Instant now = Instant.now();
+        PaymentSaga saga = findCompensating(sagaId);
+        if (saga == null) {
+            return;
+        }
+        saga.setState(PaymentSaga.COMPENSATED);
+        saga.setNextAttemptAt(null);
+        saga.setUpdatedAt(now);
+        stepRepository.save(sagaService.step(sagaId, PaymentSagaStep.COMPENSATION, PaymentSagaStep.SUCCEEDED, null, now));
+        sagaService.count("compensated");
+        log.info("Payment {} compensated by recovery", sagaId);
+    }
+
+    private void recordFailure(String sagaId, RestClientException failure) {
+        Instant now = Instant.now();
+        PaymentSaga saga = findCompensating(sagaId);
+        if (saga == null) {
+            return;
+        }
+        String error = PaymentSagaService.message(failure);
+        saga.setAttempts(saga.getAttempts() + 1);
+        saga.setLastError(error);
+        saga.setUpdatedAt(now);
+        stepRepository.save(sagaService.step(sagaId, PaymentSagaStep.COMPENSATION, PaymentSagaStep.FAILED, error, now));
+        if (saga.getAttempts() >= maxAttempts) {
+            saga.setState(PaymentSaga.COMPENSATION_FAILED);
+            saga.setNextAttemptAt(null);
+            sagaService.count("failed");
+            log.error("Giving up compensating payment {} of {} for customer {} after {} attempts: {}",
+                    sagaId, saga.getAmount(), saga.getCustomerId(), saga.getAttempts(), error);
+        } else {
+            saga.setNextAttemptAt(now.plus(retryBackoff.multipliedBy(saga.getAttempts())));
+            sagaService.count("retry");
+        }
+    }
+
+    /**
+     * The claimed saga, unless another instance recorded its outcome after this
+     * one's lease ran out.
+     */
+    private PaymentSaga findCompensating(String sagaId) {
+        return sagaRepository.findById(sagaId)
+                .filter(saga -> PaymentSaga.COMPENSATING.equals(saga.getState()))
+                .orElse(null);
+    }
+
+    /**
+     * Parse "0,3,8-11" into partition numbers; blank means every partition.
+     */
+    static List<Integer> parsePartitions(String spec, int partitionCount) {
+        if (spec == null || spec.isBlank()) {
+            return IntStream.range(0, partitionCount).boxed().toList();
+        }
+        TreeSet<Integer> partitions = new TreeSet<>();
+        for (String part : spec.split(",")) {
+            String[] range = part.trim().split("-");
+            int from = Integer.parseInt(range[0].trim());
+            int to = range.length > 1 ? Integer.parseInt(range[1].trim()) : from;
+            for (int partition = from; partition <= to; partition++) {
+                if (partition < 0 || partition >= partitionCount) {
+                    throw new IllegalArgumentException("Saga partition " + partition + " is outside 0.." + (partitionCount - 1));
+                }
+                partitions.add(partition);
+            }
+        }
+        return List.copyOf(partitions);
+    }
+}
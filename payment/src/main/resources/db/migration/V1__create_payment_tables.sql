@@ -0,0 +1,27 @@
+-- Baseline payment schema. IF NOT EXISTS keeps this safe on databases that
+-- were created earlier by hibernate ddl-auto=update.
+
+CREATE TABLE IF NOT EXISTS ledger (
+    id             BIGSERIAL      NOT NULL,
+    user_id        BIGINT,
+    amount         NUMERIC(38, 2),
+    status         VARCHAR(255),
+    transaction_id VARCHAR(255) UNIQUE,
+    created_at     TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id                 BIGSERIAL    NOT NULL,
+    transaction_id     VARCHAR(255),
+    user_id            VARCHAR(255),
+    amount             FLOAT(53),
+    transaction_status VARCHAR(255),
+    message            VARCHAR(255),
+    status             VARCHAR(255),
+    attempts           INTEGER      NOT NULL,
+    next_attempt_at    TIMESTAMP(6) WITH TIME ZONE,
+    created_at         TIMESTAMP(6) WITH TIME ZONE,
+    sent_at            TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,19 @@
+-- Every payment writes its customer, merchant and fee rows under one transaction id, so
+-- transaction_id cannot be unique. Drop the unique constraint whatever it was named: V1
+-- creates ledger_transaction_id_key, older ddl-auto schemas have a generated name.
+DO $$
+DECLARE
+    name TEXT;
+BEGIN
+    FOR name IN
+        SELECT con.conname
+        FROM pg_constraint con
+        JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = con.conkey[1]
+        WHERE con.conrelid = 'ledger'::regclass
+          AND con.contype = 'u'
+          AND array_length(con.conkey, 1) = 1
+          AND att.attname = 'transaction_id'
+    LOOP
+        EXECUTE format('ALTER TABLE ledger DROP CONSTRAINT %I', name);
+    END LOOP;
+END $$;
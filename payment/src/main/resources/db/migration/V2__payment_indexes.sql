@@ -0,0 +1,7 @@
+-- Per-user ledger history in time order.
+CREATE INDEX IF NOT EXISTS idx_ledger_user_created ON ledger (user_id, created_at);
+
+-- The relay only ever looks for due PENDING rows; sent rows drop out of the index.
+CREATE INDEX IF NOT EXISTS idx_outbox_pending_due
+    ON notification_outbox (next_attempt_at, id)
+    WHERE status = 'PENDING';
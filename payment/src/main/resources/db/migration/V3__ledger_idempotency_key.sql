@@ -0,0 +1,7 @@
+-- Idempotency-Key of the request that created a payment. Every ledger row of the
+-- payment carries it; the customer debit row makes it unique per payment.
+ALTER TABLE ledger ADD COLUMN IF NOT EXISTS idempotency_key VARCHAR(255);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_ledger_idempotency_key
+    ON ledger (idempotency_key)
+    WHERE status = 'DEBITED' AND idempotency_key IS NOT NULL;
@@ -0,0 +1,34 @@
+-- Saga state per payment (see PaymentSagaService) and its step history.
+CREATE TABLE IF NOT EXISTS payment_saga (
+    id                  VARCHAR(255)   NOT NULL,
+    customer_id         BIGINT,
+    merchant_account_no BIGINT,
+    amount              NUMERIC(38, 2),
+    fee                 NUMERIC(38, 2),
+    idempotency_key     VARCHAR(255),
+    state               VARCHAR(255),
+    partition_no        INTEGER        NOT NULL,
+    attempts            INTEGER        NOT NULL,
+    next_attempt_at     TIMESTAMP(6) WITH TIME ZONE,
+    last_error          VARCHAR(1000),
+    created_at          TIMESTAMP(6) WITH TIME ZONE,
+    updated_at          TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (id)
+);
+
+-- Recovery workers poll by partition; finished sagas drop out of the index.
+CREATE INDEX IF NOT EXISTS idx_payment_saga_due
+    ON payment_saga (partition_no, next_attempt_at)
+    WHERE state IN ('STARTED', 'COMPENSATING');
+
+CREATE TABLE IF NOT EXISTS payment_saga_step (
+    id         BIGSERIAL     NOT NULL,
+    saga_id    VARCHAR(255),
+    step       VARCHAR(255),
+    outcome    VARCHAR(255),
+    detail     VARCHAR(1000),
+    created_at TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_payment_saga_step_saga ON payment_saga_step (saga_id);
@@ -0,0 +1,61 @@
+-- Ledger rows are keyed by (transaction_id, leg) and hash partitioned by user_id, so a
+-- user's statement only touches one partition. PostgreSQL requires the partition key in
+-- every unique constraint, which is why user_id leads the primary key.
+CREATE TABLE ledger_partitioned (
+    user_id         BIGINT       NOT NULL,
+    transaction_id  VARCHAR(255) NOT NULL,
+    leg             SMALLINT     NOT NULL,
+    amount          NUMERIC(38, 2),
+    status          VARCHAR(255),
+    idempotency_key VARCHAR(255),
+    created_at      TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT ledger_pk PRIMARY KEY (user_id, transaction_id, leg)
+) PARTITION BY HASH (user_id);
+
+DO $$
+BEGIN
+    FOR i IN 0..15 LOOP
+        EXECUTE format('CREATE TABLE ledger_p%s PARTITION OF ledger_partitioned '
+                       'FOR VALUES WITH (MODULUS 16, REMAINDER %s)', i, i);
+    END LOOP;
+END $$;
+
+-- Existing rows predate legs: number them per transaction in insertion order.
+INSERT INTO ledger_partitioned (user_id, transaction_id, leg, amount, status, idempotency_key, created_at)
+SELECT COALESCE(user_id, 0),
+       COALESCE(transaction_id, 'legacy-' || id),
+       ROW_NUMBER() OVER (PARTITION BY COALESCE(transaction_id, 'legacy-' || id) ORDER BY id) - 1,
+       amount, status, idempotency_key, created_at
+FROM ledger;
+
+DROP TABLE ledger;
+ALTER TABLE ledger_partitioned RENAME TO ledger;
+
+-- Statements page through a user's rows in this order.
+CREATE INDEX idx_ledger_user_created ON ledger (user_id, created_at, transaction_id, leg);
+
+-- Replaces the V3 index, which cannot be unique across partitions without user_id.
+CREATE UNIQUE INDEX uq_ledger_idempotency_key
+    ON ledger (idempotency_key, user_id)
+    WHERE status = 'DEBITED' AND idempotency_key IS NOT NULL;
+
+-- Running totals per user, maintained with every payment (see LedgerService).
+CREATE TABLE IF NOT EXISTS ledger_user_summary (
+    user_id          BIGINT         NOT NULL,
+    total_debited    NUMERIC(38, 2) NOT NULL,
+    total_credited   NUMERIC(38, 2) NOT NULL,
+    debit_count      BIGINT         NOT NULL,
+    credit_count     BIGINT         NOT NULL,
+    last_activity_at TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (user_id)
+);
+
+INSERT INTO ledger_user_summary (user_id, total_debited, total_credited, debit_count, credit_count, last_activity_at)
+SELECT user_id,
+       COALESCE(SUM(amount) FILTER (WHERE status = 'DEBITED'), 0),
+       COALESCE(SUM(amount) FILTER (WHERE status <> 'DEBITED'), 0),
+       COUNT(*) FILTER (WHERE status = 'DEBITED'),
+       COUNT(*) FILTER (WHERE status <> 'DEBITED'),
+       MAX(created_at)
+FROM ledger
+GROUP BY user_id;
@@ -0,0 +1,3 @@
+-- Hibernate allocates these ids in blocks of 50, see the @SequenceGenerator of each entity.
+ALTER SEQUENCE notification_outbox_id_seq INCREMENT BY 50;
+ALTER SEQUENCE payment_saga_step_id_seq INCREMENT BY 50;
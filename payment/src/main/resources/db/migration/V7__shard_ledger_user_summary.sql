@@ -0,0 +1,5 @@
+-- Summaries of busy users (the fee account) are split over several shard rows, see
+-- LedgerService. Existing rows become shard 0.
+ALTER TABLE ledger_user_summary ADD COLUMN shard SMALLINT NOT NULL DEFAULT 0;
+ALTER TABLE ledger_user_summary DROP CONSTRAINT ledger_user_summary_pkey;
+ALTER TABLE ledger_user_summary ADD PRIMARY KEY (user_id, shard);
@@ -0,0 +1,11 @@
+-- Ledger rows older than payment.archive.retention are moved to segment files, one per
+-- [covered_from, covered_until) window, see LedgerArchive. Summaries keep their totals.
+CREATE TABLE IF NOT EXISTS ledger_archive_segment (
+    name          VARCHAR(255)                NOT NULL,
+    covered_from  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    covered_until TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    row_count     BIGINT                      NOT NULL,
+    size_bytes    BIGINT                      NOT NULL,
+    created_at    TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (name)
+);
@@ -0,0 +1,20 @@
+package com.ewallet.ratelimit;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * The {@link RateLimiter} of a service that declares its {@link RateLimitSettings}.
+ */
+@AutoConfiguration
+@ConditionalOnBean(RateLimitSettings.class)
+public class RateLimitAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RateLimiter rateLimiter(RateLimitSettings settings) {
+        return new RateLimiter(settings.getMaxBuckets(), settings.getIdleExpiry());
+    }
+}
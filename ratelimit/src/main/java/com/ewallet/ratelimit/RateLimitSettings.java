@@ -0,0 +1,87 @@
+package com.ewallet.ratelimit;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings every service's rate limits share: whether they are on, how many
+ * buckets are kept and for how long, and the named tiers. Services extend it
+ * with their {@code @ConfigurationProperties} prefix and tier assignments.
+ */
+public class RateLimitSettings {
+
+    private boolean enabled = true;
+
+    // buckets kept at most, and how long an idle one is kept
+    private long maxBuckets = 100_000;
+
+    private Duration idleExpiry = Duration.ofMinutes(10);
+
+    private Map<String, Tier> tiers = new LinkedHashMap<>();
+
+    public static class Tier {
+
+        private double permitsPerSecond;
+
+        // permits that can be taken at once after being idle
+        private int burst;
+
+        public double getPermitsPerSecond() {
+            return permitsPerSecond;
+        }
+
+        public void setPermitsPerSecond(double permitsPerSecond) {
+            this.permitsPerSecond = permitsPerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+    }
+
+    /**
+     * The configured tiers by name, in configuration order.
+     */
+    public Map<String, RateLimitTier> createTiers() {
+        Map<String, RateLimitTier> created = new LinkedHashMap<>();
+        tiers.forEach((name, tier) -> created.put(name, new RateLimitTier(name, tier.getPermitsPerSecond(), tier.getBurst())));
+        return created;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public void setMaxBuckets(long maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    public Duration getIdleExpiry() {
+        return idleExpiry;
+    }
+
+    public void setIdleExpiry(Duration idleExpiry) {
+        this.idleExpiry = idleExpiry;
+    }
+
+    public Map<String, Tier> getTiers() {
+        return tiers;
+    }
+
+    public void setTiers(Map<String, Tier> tiers) {
+        this.tiers = tiers;
+    }
+}
@@ -0,0 +1,20 @@
+package com.ewallet.ratelimit;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * What a service's /actuator/ratelimits shows: whether limits are on, the
+ * buckets kept and evicted, and each tier with the permits it granted and refused.
+ */
+public record RateLimitState(boolean enabled, long buckets, long evictions, List<Tier> tiers) {
+
+    public record Tier(String name, double permitsPerSecond, int burst, long allowed, long rejected) {
+    }
+
+    public static RateLimitState of(boolean enabled, RateLimiter rateLimiter, Collection<RateLimitTier> tiers) {
+        return new RateLimitState(enabled, rateLimiter.bucketCount(), rateLimiter.evictionCount(), tiers.stream()
+                .map(tier -> new Tier(tier.name(), tier.permitsPerSecond(), tier.burst(), tier.allowed(), tier.rejected()))
+                .toList());
+    }
+}
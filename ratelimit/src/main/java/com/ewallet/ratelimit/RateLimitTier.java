@@ -0,0 +1,60 @@
+package com.ewallet.ratelimit;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A rate and burst size shared by every key assigned to it, e.g. all standard
+ * customers. Counts the permits it granted and refused.
+ */
+public final class RateLimitTier {
+
+    private final String name;
+
+    private final double permitsPerSecond;
+
+    private final int burst;
+
+    // time between permits, and how far ahead of now a bucket may be booked
+    final long intervalNanos;
+
+    final long toleranceNanos;
+
+    private final LongAdder allowed = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    public RateLimitTier(String name, double permitsPerSecond, int burst) {
+        if (!(permitsPerSecond > 0) || burst < 1) {
+            throw new IllegalArgumentException("Rate limit tier " + name + " needs permitsPerSecond > 0 and burst >= 1");
+        }
+        this.name = name;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.intervalNanos = Math.max(1, Math.round(1_000_000_000d / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * burst;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public double permitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public int burst() {
+        return burst;
+    }
+
+    public long allowed() {
+        return allowed.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    void count(boolean permitted) {
+        (permitted ? allowed : rejected).increment();
+    }
+}
@@ -0,0 +1,68 @@
+package com.ewallet.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+
+/**
+ * Token buckets by key, each checked against the tier the caller passes. At
+ * most {@code maxBuckets} are kept: buckets idle for {@code idleExpiry} are
+ * dropped, and beyond the size the least useful ones are evicted. A dropped
+ * bucket comes back full, which only ever errs towards letting requests through.
+ */
+public final class RateLimiter {
+
+    private final Cache<String, TokenBucket> buckets;
+
+    // the clock of both the buckets and their idle expiry
+    private final Ticker ticker;
+
+    public RateLimiter(long maxBuckets, Duration idleExpiry) {
+        this(maxBuckets, idleExpiry, Ticker.systemTicker());
+    }
+
+    RateLimiter(long maxBuckets, Duration idleExpiry, Ticker ticker) {
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleExpiry)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Take a permit from the key's bucket. Returns 0 when granted, otherwise
+     * the nanoseconds until the next permit.
+     */
+    public long tryAcquire(String key, RateLimitTier tier) {
+        long waitNanos = buckets.get(key, k -> new TokenBucket()).tryAcquire(tier, ticker.read());
+        tier.count(waitNanos == 0);
+        return waitNanos;
+    }
+
+    /**
+     * Permits the key could take right now; a full burst when it has no bucket.
+     */
+    public int available(String key, RateLimitTier tier) {
+        TokenBucket bucket = buckets.getIfPresent(key);
+        return bucket == null ? tier.burst() : bucket.available(tier, ticker.read());
+    }
+
+    public long bucketCount() {
+        return buckets.estimatedSize();
+    }
+
+    public long evictionCount() {
+        return buckets.stats().evictionCount();
+    }
+
+    /**
+     * Run pending evictions now instead of on the next cache maintenance.
+     */
+    void cleanUp() {
+        buckets.cleanUp();
+    }
+}
@@ -0,0 +1,37 @@
+package com.ewallet.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket kept as the single time at which it will be full again (the
+ * generic cell rate algorithm). Taking a permit moves that time one interval
+ * further, with a compare-and-set and no lock. A permit is refused when the
+ * time would end up more than a burst's worth of intervals ahead of now.
+ */
+final class TokenBucket {
+
+    private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Take a permit. Returns 0 when granted, otherwise the nanoseconds until
+     * one is available.
+     */
+    long tryAcquire(RateLimitTier tier, long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + tier.intervalNanos;
+            long ahead = next - now - tier.toleranceNanos;
+            if (ahead > 0) {
+                return ahead;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    int available(RateLimitTier tier, long now) {
+        long used = Math.max(fullAt.get(), now) - now;
+        return (int) ((tier.toleranceNanos - used) / tier.intervalNanos);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ewallet.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    // one permit every 500 ms, up to 2 at once
+    private final RateLimitTier tier = new RateLimitTier("test", 2, 2);
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    private final RateLimiter rateLimiter = new RateLimiter(100, Duration.ofMinutes(1), clock::get);
+
+    @Test
+    void grantsBurstThenReturnsWaitUntilNextPermit() {
+        assertThat(rateLimiter.tryAcquire("ACC1", tier)).isZero();
+        assertThat(rateLimiter.tryAcquire("ACC1", tier)).isZero();
+        assertThat(rateLimiter.tryAcquire("ACC1", tier)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+
+        advance(Duration.ofMillis(200));
+        assertThat(rateLimiter.tryAcquire("ACC1", tier)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(300));
+
+        advance(Duration.ofMillis(300));
+        assertThat(rateLimiter.tryAcquire("ACC1", tier)).isZero();
+        assertThat(tier.allowed()).isEqualTo(3);
+        assertThat(tier.rejected()).isEqualTo(2);
+    }
+
+    @Test
+    void keysHaveTheirOwnBuckets() {
+        rateLimiter.tryAcquire("ACC1", tier);
+        rateLimiter.tryAcquire("ACC1", tier);
+
+        assertThat(rateLimiter.tryAcquire("ACC1", tier)).isPositive();
+        assertThat(rateLimiter.tryAcquire("ACC2", tier)).isZero();
+        assertThat(rateLimiter.available("ACC1", tier)).isZero();
+        assertThat(rateLimiter.available("ACC2", tier)).isEqualTo(1);
+        assertThat(rateLimiter.available("ACC3", tier)).isEqualTo(2);
+    }
+
+    @Test
+    void idleBucketsExpire() {
+        rateLimiter.tryAcquire("ACC1", tier);
+        rateLimiter.tryAcquire("ACC2", tier);
+        advance(Duration.ofSeconds(45));
+        rateLimiter.tryAcquire("ACC2", tier);
+
+        advance(Duration.ofSeconds(30));
+        rateLimiter.cleanUp();
+
+        assertThat(rateLimiter.bucketCount()).isEqualTo(1);
+        assertThat(rateLimiter.evictionCount()).isEqualTo(1);
+        assertThat(rateLimiter.available("ACC1", tier)).isEqualTo(2);
+    }
+
+    @Test
+    void bucketCountIsBounded() {
+        for (int i = 0; i < 1000; i++) {
+            rateLimiter.tryAcquire("ACC" + i, tier);
+        }
+        rateLimiter.cleanUp();
+
+        assertThat(rateLimiter.bucketCount()).isEqualTo(100);
+        assertThat(rateLimiter.evictionCount()).isEqualTo(900);
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,84 @@
+package com.ewallet.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    // one permit every 100 ms, up to 5 at once
+    private static final RateLimitTier TIER = new RateLimitTier("test", 10, 5);
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long NOW = TimeUnit.SECONDS.toNanos(42);
+
+    private final TokenBucket bucket = new TokenBucket();
+
+    @Test
+    void fullBurstIsAllowed() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(TIER, NOW)).isZero();
+        }
+    }
+
+    @Test
+    void requestAfterBurstIsRefusedUntilNextEmission() {
+        takeBurst(NOW);
+
+        assertThat(bucket.tryAcquire(TIER, NOW)).isEqualTo(INTERVAL);
+        assertThat(bucket.tryAcquire(TIER, NOW + 40_000_000L)).isEqualTo(INTERVAL - 40_000_000L);
+    }
+
+    @Test
+    void refusedRequestsDoNotTakePermits() {
+        takeBurst(NOW);
+        for (int i = 0; i < 10; i++) {
+            assertThat(bucket.tryAcquire(TIER, NOW)).isPositive();
+        }
+
+        assertThat(bucket.tryAcquire(TIER, NOW + INTERVAL)).isZero();
+    }
+
+    @Test
+    void onePermitComesBackPerEmissionInterval() {
+        takeBurst(NOW);
+
+        assertThat(bucket.tryAcquire(TIER, NOW + INTERVAL - 1)).isEqualTo(1);
+        assertThat(bucket.tryAcquire(TIER, NOW + INTERVAL)).isZero();
+        assertThat(bucket.tryAcquire(TIER, NOW + INTERVAL)).isEqualTo(INTERVAL);
+        assertThat(bucket.tryAcquire(TIER, NOW + 3 * INTERVAL)).isZero();
+        assertThat(bucket.tryAcquire(TIER, NOW + 3 * INTERVAL)).isZero();
+        assertThat(bucket.tryAcquire(TIER, NOW + 3 * INTERVAL)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void idleBucketRefillsToBurstOnly() {
+        takeBurst(NOW);
+
+        takeBurst(NOW + TimeUnit.MINUTES.toNanos(10));
+        assertThat(bucket.tryAcquire(TIER, NOW + TimeUnit.MINUTES.toNanos(10))).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void availableCountsWholePermits() {
+        assertThat(bucket.available(TIER, NOW)).isEqualTo(5);
+
+        bucket.tryAcquire(TIER, NOW);
+        bucket.tryAcquire(TIER, NOW);
+        assertThat(bucket.available(TIER, NOW)).isEqualTo(3);
+
+        takeBurst(NOW);
+        assertThat(bucket.available(TIER, NOW)).isZero();
+        assertThat(bucket.available(TIER, NOW + INTERVAL + INTERVAL / 2)).isEqualTo(1);
+        assertThat(bucket.available(TIER, NOW + TimeUnit.MINUTES.toNanos(1))).isEqualTo(5);
+    }
+
+    private void takeBurst(long now) {
+        while (bucket.tryAcquire(TIER, now) == 0) {
+            // drain
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.ewallet.wallet;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.util.TimeZone;
 
@@ -9,6 +11,8 @@ import java.util.TimeZone;
  * Main class for Wallet Service
  */
 @SpringBootApplication
+@EnableCaching
+@EnableScheduling
 public class WalletApplication {
     public static void main(String[] args) {
         TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
@@ -0,0 +1,35 @@
+package com.ewallet.wallet.actuator;
+
+import com.ewallet.wallet.dto.BalanceMismatchDTO;
+import com.ewallet.wallet.entity.WalletBalanceCheckpoint;
+import com.ewallet.wallet.service.BalanceCheckpointJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * GET /actuator/balancecheckpoints lists checkpoints that disagree with a full
+ * journal sum, POST /actuator/balancecheckpoints/{accNo} checkpoints one account now.
+ */
+@Component
+@Endpoint(id = "balancecheckpoints")
+public class BalanceCheckpointEndpoint {
+
+    @Autowired
+    private BalanceCheckpointJob balanceCheckpointJob;
+
+    @ReadOperation
+    public List<BalanceMismatchDTO> mismatches() {
+        return balanceCheckpointJob.verify();
+    }
+
+    @WriteOperation
+    public WalletBalanceCheckpoint checkpoint(@Selector String walletAccNo) {
+        return balanceCheckpointJob.checkpoint(walletAccNo);
+    }
+}
@@ -0,0 +1,41 @@
+package com.ewallet.wallet.actuator;
+
+import com.ewallet.wallet.dto.BalanceMismatchDTO;
+import com.ewallet.wallet.service.BalanceSnapshotJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GET /actuator/balancesnapshots lists snapshots that disagree with the journal,
+ * POST rebuilds all of them and POST /actuator/balancesnapshots/{accNo} rebuilds one.
+ */
+@Component
+@Endpoint(id = "balancesnapshots")
+public class BalanceSnapshotEndpoint {
+
+    @Autowired
+    private BalanceSnapshotJob balanceSnapshotJob;
+
+    @ReadOperation
+    public List<BalanceMismatchDTO> mismatches() {
+        return balanceSnapshotJob.verify();
+    }
+
+    @WriteOperation
+    public Map<String, Integer> rebuildAll() {
+        return Map.of("rebuilt", balanceSnapshotJob.rebuildAll());
+    }
+
+    @WriteOperation
+    public Map<String, BigDecimal> rebuild(@Selector String walletAccNo) {
+        return Map.of(walletAccNo, balanceSnapshotJob.rebuild(walletAccNo));
+    }
+}
@@ -0,0 +1,37 @@
+package com.ewallet.wallet.actuator;
+
+import com.ewallet.wallet.entity.WalletArchiveSegment;
+import com.ewallet.wallet.repository.WalletArchiveSegmentRepository;
+import com.ewallet.wallet.service.JournalArchive;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * GET /actuator/journalarchive lists the archive segments, POST archives every
+ * window that is past the retention now.
+ */
+@Component
+@Endpoint(id = "journalarchive")
+public class JournalArchiveEndpoint {
+
+    @Autowired
+    private JournalArchive journalArchive;
+
+    @Autowired
+    private WalletArchiveSegmentRepository segmentRepository;
+
+    @ReadOperation
+    public List<WalletArchiveSegment> segments() {
+        return segmentRepository.findAllByOrderByCoveredFromAsc();
+    }
+
+    @WriteOperation
+    public List<WalletArchiveSegment> archive() {
+        return journalArchive.archive();
+    }
+}
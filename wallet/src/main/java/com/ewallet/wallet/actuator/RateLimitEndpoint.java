@@ -0,0 +1,36 @@
+package com.ewallet.wallet.actuator;
+
+import com.ewallet.ratelimit.RateLimitState;
+import com.ewallet.ratelimit.RateLimiter;
+import com.ewallet.wallet.service.WalletRateLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * GET /actuator/ratelimits shows the tiers with the permits they granted and
+ * refused and how many user buckets are kept, GET /actuator/ratelimits/{userId}
+ * the permits one user has left (404 while rate limits are disabled).
+ */
+@Component
+@Endpoint(id = "ratelimits")
+public class RateLimitEndpoint {
+
+    @Autowired
+    private WalletRateLimiter walletRateLimiter;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @ReadOperation
+    public RateLimitState state() {
+        return RateLimitState.of(walletRateLimiter.isEnabled(), rateLimiter, walletRateLimiter.tiers());
+    }
+
+    @ReadOperation
+    public Integer available(@Selector String userId) {
+        return walletRateLimiter.available(userId);
+    }
+}
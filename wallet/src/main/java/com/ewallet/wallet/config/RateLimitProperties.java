@@ -0,0 +1,26 @@
+package com.ewallet.wallet.config;
+
+import com.ewallet.ratelimit.RateLimitSettings;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Wallet rate limits per user: named tiers, the tier users get by default and
+ * the users put in another one.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "wallet.rate-limit")
+public class RateLimitProperties extends RateLimitSettings {
+
+    private String tier;
+
+    // userId -> tier name
+    private Map<String, String> users = new HashMap<>();
+}
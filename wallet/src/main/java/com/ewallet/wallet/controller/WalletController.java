@@ -1,12 +1,19 @@
 package com.ewallet.wallet.controller;
 
+import com.ewallet.wallet.dto.BatchPostingRequestDTO;
+import com.ewallet.wallet.dto.TransactionPageDTO;
 import com.ewallet.wallet.dto.UserBalanceDTO;
 import com.ewallet.wallet.dto.WalletRequestDTO;
 import com.ewallet.wallet.entity.Wallet;
+import com.ewallet.wallet.service.TransactionExportService;
+import com.ewallet.wallet.service.WalletRateLimiter;
 import com.ewallet.wallet.service.WalletService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -14,12 +21,22 @@ import java.util.List;
 @RequestMapping("/api/v1/")
 public class WalletController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private WalletService walletService;
 
+    @Autowired
+    private WalletRateLimiter walletRateLimiter;
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+
     @GetMapping("check-balance/{userId}")
     public UserBalanceDTO getUserWithBalance(@PathVariable("userId") String userId) {
 
+        walletRateLimiter.check(userId);
+
         return walletService.getUserWithBalance(userId);
 
     }
@@ -27,6 +44,8 @@ public class WalletController {
     @PostMapping("/credit")
     public ResponseEntity<String> credit(@RequestBody WalletRequestDTO request) {
 
+        walletRateLimiter.check(request.getUserId());
+
         walletService.credit(request);
 
         return ResponseEntity.ok("Amount credited successfully");
@@ -36,14 +55,62 @@ public class WalletController {
     @PostMapping("/debit")
     public ResponseEntity<String> debit(@RequestBody WalletRequestDTO request) {
 
+        walletRateLimiter.check(request.getUserId());
+
         walletService.debit(request);
 
         return ResponseEntity.ok("Amount debited successfully");
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<String> postBatch(@RequestBody BatchPostingRequestDTO request) {
+
+        walletService.postBatch(request);
+
+        return ResponseEntity.ok("Batch posted successfully");
+    }
+
+    @PostMapping("/batch/{reference}/reversal")
+    public ResponseEntity<String> reverseBatch(@PathVariable("reference") String reference) {
+
+        walletService.reverseBatch(reference);
+
+        return ResponseEntity.ok("Batch reversed successfully");
+    }
+
+    /**
+     * One page of the account's history. When more rows exist the X-Next-Cursor
+     * response header carries the cursor for the following page.
+     */
     @GetMapping("/{accNo}/transactions")
-    public List<Wallet> viewTransactions(@PathVariable("accNo") String walletAccNo) {
+    public ResponseEntity<List<Wallet>> viewTransactions(@PathVariable("accNo") String walletAccNo,
+                                                         @RequestParam(value = "cursor", required = false) String cursor,
+                                                         @RequestParam(value = "limit", defaultValue = "100") int limit) {
+
+        TransactionPageDTO page = walletService.viewTransactions(walletAccNo, cursor, limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getTransactions());
+    }
+
+    @GetMapping("/{accNo}/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@PathVariable("accNo") String walletAccNo,
+                                                                    @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+
+        MediaType contentType = switch (format) {
+            case TransactionExportService.NDJSON -> MediaType.APPLICATION_NDJSON;
+            case TransactionExportService.CSV -> new MediaType("text", "csv");
+            default -> throw new IllegalArgumentException("Unsupported export format: " + format);
+        };
+
+        StreamingResponseBody body = out -> transactionExportService.export(walletAccNo, format, out);
 
-        return walletService.viewTransactions(walletAccNo);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + walletAccNo + "." + format + "\"")
+                .body(body);
     }
 }
@@ -0,0 +1,16 @@
+package com.ewallet.wallet.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BalanceMismatchDTO {
+
+	private String walletAccNo;
+	private BigDecimal snapshotBalance;
+	private BigDecimal journalBalance;
+
+}
@@ -0,0 +1,22 @@
+package com.ewallet.wallet.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchPostingRequestDTO {
+
+	private List<PostingLegDTO> legs;
+
+	/**
+	 * Optional caller reference. A batch is applied at most once per reference
+	 * and can later be reversed by it.
+	 */
+	private String reference;
+
+}
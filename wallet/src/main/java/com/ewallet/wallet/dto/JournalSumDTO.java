@@ -0,0 +1,15 @@
+package com.ewallet.wallet.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class JournalSumDTO {
+
+	private BigDecimal balance;
+	private long rows;
+
+}
@@ -0,0 +1,21 @@
+package com.ewallet.wallet.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostingLegDTO {
+
+	private String userId;
+
+	/** 'C' for credit, 'D' for debit, as on the wallet journal. */
+	private String tranType;
+
+	private BigDecimal amount;
+
+}
@@ -0,0 +1,44 @@
+package com.ewallet.wallet.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.ewallet.wallet.entity.Wallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Keyset position in an account's transaction history: the (createdTime,
+ * transactionId) of the last row returned. Sent to clients as an opaque
+ * URL-safe string.
+ */
+@Data
+@AllArgsConstructor
+public class TransactionCursor {
+
+	private LocalDateTime createdTime;
+	private Long transactionId;
+
+	public static TransactionCursor after(Wallet wallet) {
+		return new TransactionCursor(wallet.getCreatedTime(), wallet.getTransactionId());
+	}
+
+	public String encode() {
+		String raw = createdTime + "|" + transactionId;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static TransactionCursor decode(String cursor) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separator = raw.indexOf('|');
+			return new TransactionCursor(LocalDateTime.parse(raw.substring(0, separator)),
+					Long.valueOf(raw.substring(separator + 1)));
+		} catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+			throw new IllegalArgumentException("Invalid cursor: " + cursor);
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package com.ewallet.wallet.dto;
+
+import java.util.List;
+
+import com.ewallet.wallet.entity.Wallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TransactionPageDTO {
+
+	private List<Wallet> transactions;
+
+	/** Cursor for the next page, null when this is the last page. */
+	private String nextCursor;
+
+}
@@ -12,15 +12,17 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "wallet")
+@Table(name = "wallet", indexes = @Index(name = "idx_wallet_acc_created",
+        columnList = "wallet_acc_no, created_time, transaction_id"))
 public class Wallet {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_transaction_id_seq")
+    @SequenceGenerator(name = "wallet_transaction_id_seq", sequenceName = "wallet_transaction_id_seq", allocationSize = 50)
     @Column(name = "transaction_id")
     private Long transactionId;
 
-    @Column(name = "wallet_acc_no", nullable = false, unique = true)
+    @Column(name = "wallet_acc_no", nullable = false)
     private String walletAccNo;
 
     @Column(name = "tran_type", nullable = false)
@@ -32,6 +34,10 @@ public class Wallet {
     @Column(name = "created_time", nullable = false)
     private LocalDateTime createdTime;
 
+    // reference of the batch posting (and its reversal) that wrote this row, see WalletPosting
+    @Column(name = "posting_reference")
+    private String postingReference;
+
     public Wallet(String walletAccNo, String tranType, BigDecimal amount, LocalDateTime createdTime) {
         this.walletAccNo = walletAccNo;
         this.tranType = tranType;
@@ -0,0 +1,34 @@
+package com.ewallet.wallet.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running balance per wallet account. Maintained in the same transaction as
+ * every {@link Wallet} journal row, so it always equals the journal sum.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "wallet_balance")
+public class WalletBalance {
+
+    @Id
+    @Column(name = "wallet_acc_no", nullable = false)
+    private String walletAccNo;
+
+    @Column(name = "balance", nullable = false, precision = 15, scale = 2)
+    private BigDecimal balance;
+
+    @Column(name = "updated_time", nullable = false)
+    private LocalDateTime updatedTime;
+}
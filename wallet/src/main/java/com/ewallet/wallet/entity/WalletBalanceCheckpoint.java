@@ -0,0 +1,45 @@
+package com.ewallet.wallet.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Sum of an account's journal rows created before {@code coveredUntil}, so the
+ * journal balance is this plus the rows from then on. Written only by the
+ * checkpoint job, never on the write path.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "wallet_balance_checkpoint")
+public class WalletBalanceCheckpoint {
+
+    @Id
+    @Column(name = "wallet_acc_no", nullable = false)
+    private String walletAccNo;
+
+    @Column(name = "balance", nullable = false, precision = 15, scale = 2)
+    private BigDecimal balance;
+
+    @Column(name = "covered_until", nullable = false)
+    private LocalDateTime coveredUntil;
+
+    @Column(name = "checkpoint_time", nullable = false)
+    private LocalDateTime checkpointTime;
+
+    @Column(name = "next_due_time", nullable = false)
+    private LocalDateTime nextDueTime;
+
+    // the part of balance whose journal rows have been archived
+    @Column(name = "archived_balance", nullable = false, precision = 15, scale = 2)
+    private BigDecimal archivedBalance;
+}
@@ -0,0 +1,38 @@
+package com.ewallet.wallet.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of a referenced batch posting. A reference is POSTED by the batch,
+ * REVERSED when that batch is undone, or CANCELLED when a reversal arrives
+ * before (or instead of) the batch, after which the batch is refused.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "wallet_posting")
+public class WalletPosting {
+
+    public static final String POSTED = "POSTED";
+    public static final String REVERSED = "REVERSED";
+    public static final String CANCELLED = "CANCELLED";
+
+    @Id
+    @Column(name = "reference", nullable = false)
+    private String reference;
+
+    @Column(name = "status", nullable = false)
+    private String status;
+
+    @Column(name = "updated_time", nullable = false)
+    private LocalDateTime updatedTime;
+}
@@ -2,12 +2,14 @@ package com.ewallet.wallet.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import lombok.Data;
 
 @Data
 @Entity
+@EntityListeners(WalletUserCacheListener.class)
 @Table(name = "wallet_user")
 public class WalletUser {
 
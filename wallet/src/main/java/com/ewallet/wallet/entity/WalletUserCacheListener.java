@@ -0,0 +1,28 @@
+package com.ewallet.wallet.entity;
+
+import com.ewallet.wallet.service.WalletUserService;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts a user from the walletUsers cache when it is updated or deleted.
+ */
+@Component
+public class WalletUserCacheListener {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @PostUpdate
+    @PostRemove
+    public void evict(WalletUser user) {
+        Cache cache = cacheManager.getCache(WalletUserService.CACHE_NAME);
+        if (cache != null) {
+            cache.evict(user.getUserId());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.ewallet.wallet.exception;
+
+public class PostingCancelledException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public PostingCancelledException(String message) {
+		super(message);
+	}
+}
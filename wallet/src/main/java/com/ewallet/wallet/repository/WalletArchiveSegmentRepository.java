@@ -0,0 +1,27 @@
+package com.ewallet.wallet.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.ewallet.wallet.entity.WalletArchiveSegment;
+
+@Repository
+public interface WalletArchiveSegmentRepository extends JpaRepository<WalletArchiveSegment, String> {
+
+	List<WalletArchiveSegment> findAllByOrderByCoveredFromAsc();
+
+	/**
+	 * Segments holding rows created at or after the given time, oldest first.
+	 */
+	List<WalletArchiveSegment> findByCoveredUntilGreaterThanOrderByCoveredFromAsc(LocalDateTime createdTime);
+
+	/**
+	 * End of the archived part of the journal, null when nothing is archived.
+	 */
+	@Query("SELECT MAX(s.coveredUntil) FROM WalletArchiveSegment s")
+	LocalDateTime findArchivedUntil();
+}
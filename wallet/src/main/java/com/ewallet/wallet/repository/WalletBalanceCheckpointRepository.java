@@ -0,0 +1,54 @@
+package com.ewallet.wallet.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.ewallet.wallet.dto.BalanceMismatchDTO;
+import com.ewallet.wallet.entity.WalletBalanceCheckpoint;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface WalletBalanceCheckpointRepository extends JpaRepository<WalletBalanceCheckpoint, String> {
+
+	@Query("SELECT c.walletAccNo FROM WalletBalanceCheckpoint c WHERE c.nextDueTime <= :now ORDER BY c.nextDueTime")
+	List<String> findDue(LocalDateTime now, Limit limit);
+
+	@Query("SELECT b.walletAccNo FROM WalletBalance b "
+			+ "WHERE NOT EXISTS (SELECT c FROM WalletBalanceCheckpoint c WHERE c.walletAccNo = b.walletAccNo)")
+	List<String> findAccountsWithoutCheckpoint(Limit limit);
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT c FROM WalletBalanceCheckpoint c WHERE c.walletAccNo = :walletAccNo")
+	Optional<WalletBalanceCheckpoint> findForUpdate(String walletAccNo);
+
+	/**
+	 * Checkpoints whose balance differs from their archived balance plus the
+	 * full sum of the journal rows they cover. Scans every account's whole journal.
+	 */
+	@Query("SELECT new com.ewallet.wallet.dto.BalanceMismatchDTO(c.walletAccNo, c.balance, c.archivedBalance + "
+			+ "COALESCE(SUM(CASE WHEN wt.tranType = 'C' THEN wt.amount WHEN wt.tranType = 'D' THEN -wt.amount END), 0)) "
+			+ "FROM WalletBalanceCheckpoint c LEFT JOIN Wallet wt "
+			+ "ON wt.walletAccNo = c.walletAccNo AND wt.createdTime < c.coveredUntil "
+			+ "GROUP BY c.walletAccNo, c.balance, c.archivedBalance "
+			+ "HAVING c.balance <> c.archivedBalance + COALESCE(SUM(CASE WHEN wt.tranType = 'C' THEN wt.amount "
+			+ "WHEN wt.tranType = 'D' THEN -wt.amount END), 0)")
+	List<BalanceMismatchDTO> findMismatches();
+
+	/**
+	 * Record that rows summing to the amount were archived from the account's journal.
+	 */
+	@Modifying
+	@Query("UPDATE WalletBalanceCheckpoint c SET c.archivedBalance = c.archivedBalance + :amount "
+			+ "WHERE c.walletAccNo = :walletAccNo")
+	int addArchivedBalance(String walletAccNo, BigDecimal amount);
+}
@@ -0,0 +1,85 @@
+package com.ewallet.wallet.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.ewallet.wallet.dto.BalanceMismatchDTO;
+import com.ewallet.wallet.entity.WalletBalance;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface WalletBalanceRepository extends JpaRepository<WalletBalance, String> {
+
+	/**
+	 * Current balance of a wallet account, read from its snapshot row. Accounts
+	 * without a snapshot have a zero balance.
+	 */
+	@Query("SELECT COALESCE(MAX(b.balance), 0) FROM WalletBalance b WHERE b.walletAccNo = :walletAccNo")
+	BigDecimal checkBalance(String walletAccNo);
+
+	/**
+	 * Combined balance of several accounts, e.g. an account and its sub-accounts.
+	 */
+	@Query("SELECT COALESCE(SUM(b.balance), 0) FROM WalletBalance b WHERE b.walletAccNo IN :walletAccNos")
+	BigDecimal sumBalances(Collection<String> walletAccNos);
+
+	List<WalletBalance> findByWalletAccNoIn(Collection<String> walletAccNos);
+
+	/**
+	 * Add a signed amount to the snapshot. Returns the number of rows updated, 0
+	 * when the account has no snapshot yet.
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE WalletBalance b SET b.balance = b.balance + :amount, b.updatedTime = :updatedTime "
+			+ "WHERE b.walletAccNo = :walletAccNo")
+	int applyDelta(String walletAccNo, BigDecimal amount, LocalDateTime updatedTime);
+
+	/**
+	 * Subtract an amount from the snapshot only if the balance covers it. The
+	 * check and the update are one statement, so concurrent debits on the same
+	 * account can never overdraw it. Returns 0 when the balance is insufficient
+	 * or the account has no snapshot.
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE WalletBalance b SET b.balance = b.balance - :amount, b.updatedTime = :updatedTime "
+			+ "WHERE b.walletAccNo = :walletAccNo AND b.balance >= :amount")
+	int debitIfSufficient(String walletAccNo, BigDecimal amount, LocalDateTime updatedTime);
+
+	/**
+	 * Create a snapshot row with the given balance unless one already exists.
+	 * Returns 1 when it was created.
+	 */
+	@Modifying
+	@Query(value = "INSERT INTO wallet_balance (wallet_acc_no, balance, updated_time) "
+			+ "VALUES (:walletAccNo, :balance, :updatedTime) ON CONFLICT DO NOTHING", nativeQuery = true)
+	int createIfAbsent(String walletAccNo, BigDecimal balance, LocalDateTime updatedTime);
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT b FROM WalletBalance b WHERE b.walletAccNo = :walletAccNo")
+	Optional<WalletBalance> findForUpdate(String walletAccNo);
+
+	/**
+	 * Snapshots whose balance differs from the sum of their journal rows. The
+	 * sum starts from the account's balance checkpoint when it has one, so only
+	 * the journal tail after the checkpoint is read.
+	 */
+	@Query("SELECT new com.ewallet.wallet.dto.BalanceMismatchDTO(b.walletAccNo, b.balance, COALESCE(c.balance, 0) + "
+			+ "COALESCE(SUM(CASE WHEN wt.tranType = 'C' THEN wt.amount WHEN wt.tranType = 'D' THEN -wt.amount END), 0)) "
+			+ "FROM WalletBalance b LEFT JOIN WalletBalanceCheckpoint c ON c.walletAccNo = b.walletAccNo "
+			+ "LEFT JOIN Wallet wt ON wt.walletAccNo = b.walletAccNo "
+			+ "AND (c.coveredUntil IS NULL OR wt.createdTime >= c.coveredUntil) "
+			+ "GROUP BY b.walletAccNo, b.balance, c.balance "
+			+ "HAVING b.balance <> COALESCE(c.balance, 0) + COALESCE(SUM(CASE WHEN wt.tranType = 'C' THEN wt.amount "
+			+ "WHEN wt.tranType = 'D' THEN -wt.amount END), 0)")
+	List<BalanceMismatchDTO> findMismatches();
+}
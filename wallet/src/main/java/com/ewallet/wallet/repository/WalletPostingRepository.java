@@ -0,0 +1,32 @@
+package com.ewallet.wallet.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.ewallet.wallet.entity.WalletPosting;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface WalletPostingRepository extends JpaRepository<WalletPosting, String> {
+
+	/**
+	 * Record the reference with the given status unless it already exists.
+	 * Returns 1 when this call created it. Waits for a concurrent transaction
+	 * inserting the same reference, so exactly one of them gets 1.
+	 */
+	@Modifying
+	@Query(value = "INSERT INTO wallet_posting (reference, status, updated_time) "
+			+ "VALUES (:reference, :status, :updatedTime) ON CONFLICT DO NOTHING", nativeQuery = true)
+	int claim(String reference, String status, LocalDateTime updatedTime);
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT p FROM WalletPosting p WHERE p.reference = :reference")
+	Optional<WalletPosting> findForUpdate(String reference);
+}
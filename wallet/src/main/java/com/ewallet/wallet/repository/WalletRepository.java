@@ -1,29 +1,124 @@
 package com.ewallet.wallet.repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.ewallet.wallet.dto.JournalSumDTO;
 import com.ewallet.wallet.entity.Wallet;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface WalletRepository extends JpaRepository<Wallet, String> {
+public interface WalletRepository extends JpaRepository<Wallet, String>, WalletRepositoryCustom {
 
 	/**
-	 * Calculate balance for a given wallet account. tranType = 'C' means Credit,
-	 * 'D' means Debit.
+	 * Calculate balance for a given wallet account from the full journal.
+	 * tranType = 'C' means Credit, 'D' means Debit. Only used for accounts
+	 * without a balance checkpoint, see WalletBalanceRepository#checkBalance for reads.
 	 */
 	@Query("SELECT COALESCE(SUM(CASE WHEN wt.tranType = 'C' THEN wt.amount "
 			+ "WHEN wt.tranType = 'D' THEN -wt.amount END), 0) "
 			+ "FROM Wallet wt WHERE wt.walletAccNo = :walletAccNo")
-	BigDecimal checkBalance(String walletAccNo);
+	BigDecimal calculateBalanceFromJournal(String walletAccNo);
 
 	/**
-	 * View all transactions for a given wallet account, ordered by createdTime
-	 * ascending.
+	 * Sum and count of an account's journal rows created before {@code until}.
 	 */
-	List<Wallet> findByWalletAccNoOrderByCreatedTimeAsc(String walletAccNo);
+	@Query("SELECT new com.ewallet.wallet.dto.JournalSumDTO(COALESCE(SUM(CASE WHEN wt.tranType = 'C' THEN wt.amount "
+			+ "WHEN wt.tranType = 'D' THEN -wt.amount END), 0), COUNT(wt)) "
+			+ "FROM Wallet wt WHERE wt.walletAccNo = :walletAccNo AND wt.createdTime < :until")
+	JournalSumDTO sumJournalBefore(String walletAccNo, LocalDateTime until);
+
+	/**
+	 * Sum and count of an account's journal rows created in [from, until).
+	 */
+	@Query("SELECT new com.ewallet.wallet.dto.JournalSumDTO(COALESCE(SUM(CASE WHEN wt.tranType = 'C' THEN wt.amount "
+			+ "WHEN wt.tranType = 'D' THEN -wt.amount END), 0), COUNT(wt)) "
+			+ "FROM Wallet wt WHERE wt.walletAccNo = :walletAccNo AND wt.createdTime >= :from AND wt.createdTime < :until")
+	JournalSumDTO sumJournalBetween(String walletAccNo, LocalDateTime from, LocalDateTime until);
+
+	/**
+	 * Balance of an account's journal rows created at or after {@code from},
+	 * i.e. the tail after a checkpoint.
+	 */
+	@Query("SELECT COALESCE(SUM(CASE WHEN wt.tranType = 'C' THEN wt.amount "
+			+ "WHEN wt.tranType = 'D' THEN -wt.amount END), 0) "
+			+ "FROM Wallet wt WHERE wt.walletAccNo = :walletAccNo AND wt.createdTime >= :from")
+	BigDecimal calculateBalanceSince(String walletAccNo, LocalDateTime from);
+
+	/**
+	 * Wallet accounts that have journal rows but no balance snapshot yet.
+	 */
+	@Query("SELECT DISTINCT wt.walletAccNo FROM Wallet wt "
+			+ "WHERE NOT EXISTS (SELECT b FROM WalletBalance b WHERE b.walletAccNo = wt.walletAccNo)")
+	List<String> findAccountsWithoutSnapshot();
+
+	@Query("SELECT DISTINCT wt.walletAccNo FROM Wallet wt")
+	List<String> findAllAccounts();
+
+	/**
+	 * Journal rows written by the batch posting with the given reference.
+	 */
+	List<Wallet> findByPostingReference(String postingReference);
+
+	/**
+	 * First page of transactions for a given wallet account, ordered by
+	 * createdTime then transactionId ascending.
+	 */
+	List<Wallet> findByWalletAccNoOrderByCreatedTimeAscTransactionIdAsc(String walletAccNo, Limit limit);
+
+	/**
+	 * Next page of transactions strictly after the given (createdTime,
+	 * transactionId) position, in the same order as the first page. The row
+	 * value comparison lets the database seek straight to the position in
+	 * idx_wallet_acc_created.
+	 */
+	@Query("SELECT wt FROM Wallet wt WHERE wt.walletAccNo = :walletAccNo "
+			+ "AND (wt.createdTime, wt.transactionId) > (:createdTime, :transactionId) "
+			+ "ORDER BY wt.createdTime ASC, wt.transactionId ASC")
+	List<Wallet> findPageAfter(String walletAccNo, LocalDateTime createdTime, Long transactionId, Limit limit);
+
+	/**
+	 * Full transaction history of an account as a cursor-backed stream. Must be
+	 * consumed inside a transaction; rows are fetched from the database in
+	 * chunks of the configured fetch size instead of all at once.
+	 */
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("SELECT wt FROM Wallet wt WHERE wt.walletAccNo = :walletAccNo ORDER BY wt.createdTime ASC, wt.transactionId ASC")
+	Stream<Wallet> streamByWalletAccNo(String walletAccNo);
+
+	@Query("SELECT MIN(wt.createdTime) FROM Wallet wt")
+	LocalDateTime findOldestCreatedTime();
+
+	/**
+	 * Accounts with rows created before {@code until} whose balance checkpoint
+	 * does not cover that time yet.
+	 */
+	@Query("SELECT DISTINCT wt.walletAccNo FROM Wallet wt WHERE wt.createdTime < :until "
+			+ "AND NOT EXISTS (SELECT c FROM WalletBalanceCheckpoint c "
+			+ "WHERE c.walletAccNo = wt.walletAccNo AND c.coveredUntil >= :until)")
+	List<String> findAccountsNotCheckpointedUntil(LocalDateTime until);
+
+	/**
+	 * Rows created in [from, until) in archive segment order. Must be consumed
+	 * inside a transaction.
+	 */
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+	@Query("SELECT wt FROM Wallet wt WHERE wt.createdTime >= :from AND wt.createdTime < :until "
+			+ "ORDER BY wt.walletAccNo ASC, wt.createdTime ASC, wt.transactionId ASC")
+	Stream<Wallet> streamCreatedBetween(LocalDateTime from, LocalDateTime until);
+
+	@Modifying
+	@Query("DELETE FROM Wallet wt WHERE wt.createdTime >= :from AND wt.createdTime < :until")
+	int deleteCreatedBetween(LocalDateTime from, LocalDateTime until);
 }
@@ -0,0 +1,13 @@
+package com.ewallet.wallet.repository;
+
+import java.util.List;
+
+import com.ewallet.wallet.entity.Wallet;
+
+public interface WalletRepositoryCustom {
+
+	/**
+	 * Insert journal rows with one JDBC batch instead of one statement per row.
+	 */
+	void batchInsert(List<Wallet> wallets);
+}
@@ -0,0 +1,31 @@
+package com.ewallet.wallet.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.ewallet.wallet.entity.Wallet;
+
+public class WalletRepositoryImpl implements WalletRepositoryCustom {
+
+	// ids come from the sequence Wallet's generator draws blocks of 50 from; a raw
+	// nextval is the top of a block Hibernate never hands out, so they cannot collide
+	private static final String INSERT_SQL = "INSERT INTO wallet (transaction_id, wallet_acc_no, tran_type, amount, created_time, posting_reference) "
+			+ "VALUES (nextval('wallet_transaction_id_seq'), ?, ?, ?, ?, ?)";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Override
+	public void batchInsert(List<Wallet> wallets) {
+		jdbcTemplate.batchUpdate(INSERT_SQL, wallets, wallets.size(), (ps, wallet) -> {
+			ps.setString(1, wallet.getWalletAccNo());
+			ps.setString(2, wallet.getTranType());
+			ps.setBigDecimal(3, wallet.getAmount());
+			ps.setTimestamp(4, Timestamp.valueOf(wallet.getCreatedTime()));
+			ps.setString(5, wallet.getPostingReference());
+		});
+	}
+}
@@ -0,0 +1,156 @@
+package com.ewallet.wallet.service;
+
+import com.ewallet.wallet.dto.BalanceMismatchDTO;
+import com.ewallet.wallet.dto.JournalSumDTO;
+import com.ewallet.wallet.entity.WalletBalanceCheckpoint;
+import com.ewallet.wallet.repository.WalletBalanceCheckpointRepository;
+import com.ewallet.wallet.repository.WalletRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Keeps {@link WalletBalanceCheckpoint}s of the journal up to date. A checkpoint
+ * folds the rows since the previous one into its balance, so it never rescans
+ * the account's history. It only covers rows older than {@code settle-after}:
+ * rows are journaled with the time their transaction started, and one that is
+ * still uncommitted must not land behind a checkpoint.
+ * <p>
+ * Each account is checkpointed again once about {@code target-rows} new rows
+ * are expected, going by the rate of its last checkpoint, so busy accounts are
+ * checkpointed often and quiet ones rarely.
+ */
+@Slf4j
+@Component
+public class BalanceCheckpointJob {
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private WalletBalanceCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${wallet.checkpoint.settle-after:1m}")
+    private Duration settleAfter;
+
+    @Value("${wallet.checkpoint.target-rows:1000}")
+    private long targetRows;
+
+    @Value("${wallet.checkpoint.min-interval:1m}")
+    private Duration minInterval;
+
+    @Value("${wallet.checkpoint.max-interval:1d}")
+    private Duration maxInterval;
+
+    @Value("${wallet.checkpoint.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${wallet.checkpoint.interval-ms:60000}")
+    public void checkpointDue() {
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> accounts = new LinkedHashSet<>(checkpointRepository.findAccountsWithoutCheckpoint(Limit.of(batchSize)));
+        accounts.addAll(checkpointRepository.findDue(now, Limit.of(batchSize)));
+        for (String walletAccNo : accounts) {
+            try {
+                checkpoint(walletAccNo, now);
+            } catch (RuntimeException e) {
+                log.warn("Could not checkpoint balance of {}", walletAccNo, e);
+            }
+        }
+        if (!accounts.isEmpty()) {
+            log.debug("Checkpointed balances of {} wallet accounts", accounts.size());
+        }
+    }
+
+    @Scheduled(cron = "${wallet.checkpoint.verify-cron:-}")
+    public void scheduledVerify() {
+        List<BalanceMismatchDTO> mismatches = verify();
+        if (mismatches.isEmpty()) {
+            log.info("Balance checkpoints verified against journal");
+        } else {
+            mismatches.forEach(m -> log.error("Balance checkpoint mismatch for {}: checkpoint {} journal {}",
+                    m.getWalletAccNo(), m.getSnapshotBalance(), m.getJournalBalance()));
+        }
+    }
+
+    /**
+     * Checkpoints that disagree with a full sum of the journal rows they cover,
+     * less the archived part. Reads every account's whole history, so it runs rarely.
+     */
+    public List<BalanceMismatchDTO> verify() {
+        return checkpointRepository.findMismatches();
+    }
+
+    /**
+     * Sum of the account's journal: its checkpoint plus the rows after it, or
+     * the whole journal when it has no checkpoint yet.
+     */
+    public BigDecimal journalBalance(String walletAccNo) {
+        return checkpointRepository.findById(walletAccNo)
+                .map(c -> c.getBalance().add(walletRepository.calculateBalanceSince(walletAccNo, c.getCoveredUntil())))
+                .orElseGet(() -> walletRepository.calculateBalanceFromJournal(walletAccNo));
+    }
+
+    public WalletBalanceCheckpoint checkpoint(String walletAccNo) {
+        return checkpoint(walletAccNo, LocalDateTime.now());
+    }
+
+    private WalletBalanceCheckpoint checkpoint(String walletAccNo, LocalDateTime now) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime until = now.minus(settleAfter);
+            Optional<WalletBalanceCheckpoint> previous = checkpointRepository.findForUpdate(walletAccNo);
+            if (previous.isPresent() && !until.isAfter(previous.get().getCoveredUntil())) {
+                return previous.get();
+            }
+
+            WalletBalanceCheckpoint checkpoint;
+            Duration nextIn;
+            if (previous.isEmpty()) {
+                JournalSumDTO history = walletRepository.sumJournalBefore(walletAccNo, until);
+                checkpoint = new WalletBalanceCheckpoint(walletAccNo, history.getBalance(), until, now, now,
+                        BigDecimal.ZERO);
+                // no rate to go by yet; the next checkpoint measures one
+                nextIn = minInterval;
+            } else {
+                checkpoint = previous.get();
+                JournalSumDTO tail = walletRepository.sumJournalBetween(walletAccNo, checkpoint.getCoveredUntil(), until);
+                nextIn = nextInterval(Duration.between(checkpoint.getCoveredUntil(), until), tail.getRows());
+                checkpoint.setBalance(checkpoint.getBalance().add(tail.getBalance()));
+                checkpoint.setCoveredUntil(until);
+                checkpoint.setCheckpointTime(now);
+            }
+            checkpoint.setNextDueTime(now.plus(nextIn));
+            return checkpointRepository.save(checkpoint);
+        });
+    }
+
+    /**
+     * Time until {@code targetRows} more rows are expected at the rate of
+     * {@code rows} per {@code window}, within the configured bounds.
+     */
+    private Duration nextInterval(Duration window, long rows) {
+        if (rows == 0) {
+            return maxInterval;
+        }
+        Duration interval = Duration.ofMillis((long) (window.toMillis() * ((double) targetRows / rows)));
+        if (interval.compareTo(minInterval) < 0) {
+            return minInterval;
+        }
+        return interval.compareTo(maxInterval) > 0 ? maxInterval : interval;
+    }
+}
@@ -0,0 +1,212 @@
+package com.ewallet.wallet.service;
+
+import com.ewallet.wallet.dto.UserBalanceDTO;
+import com.ewallet.wallet.entity.WalletBalance;
+import com.ewallet.wallet.entity.WalletUser;
+import com.ewallet.wallet.repository.WalletBalanceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance lookups for check-balance, shared between concurrent callers.
+ * <ul>
+ * <li>Collapsing: a lookup for a user whose lookup is already running waits
+ * for that one instead of querying again. It may therefore miss a write that
+ * committed while the first query was running, as if it had arrived a moment
+ * earlier. Debits never rely on it, they check the balance in their UPDATE.</li>
+ * <li>Micro-batching (when {@code batch-window} is positive): lookups for
+ * different users arriving within the window are answered by one
+ * {@code IN (...)} query on the balance snapshots.</li>
+ * </ul>
+ * Lookups are counted as wallet.balance.lookup{result=queried|collapsed|batched},
+ * the queries they ran as wallet.balance.lookup.queries, and
+ * wallet.balance.lookup.collapse.ratio is lookups per query.
+ */
+@Component
+public class BalanceLookup {
+
+    @Autowired
+    private WalletUserService walletUserService;
+
+    @Autowired
+    private WalletBalanceRepository walletBalanceRepository;
+
+    @Autowired
+    private ShardedAccounts shardedAccounts;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${wallet.balance-lookup.collapse:true}")
+    private boolean collapse;
+
+    @Value("${wallet.balance-lookup.batch-window:0ms}")
+    private Duration batchWindow;
+
+    @Value("${wallet.balance-lookup.max-batch-size:100}")
+    private int maxBatchSize;
+
+    private final Map<String, CompletableFuture<UserBalanceDTO>> inFlight = new ConcurrentHashMap<>();
+
+    private final Object batchLock = new Object();
+
+    private Batch openBatch;
+
+    private Counter queried;
+
+    private Counter collapsed;
+
+    private Counter batched;
+
+    private Counter queries;
+
+    @PostConstruct
+    void registerMeters() {
+        queried = meterRegistry.counter("wallet.balance.lookup", "result", "queried");
+        collapsed = meterRegistry.counter("wallet.balance.lookup", "result", "collapsed");
+        batched = meterRegistry.counter("wallet.balance.lookup", "result", "batched");
+        queries = meterRegistry.counter("wallet.balance.lookup.queries");
+        Gauge.builder("wallet.balance.lookup.collapse.ratio", this, BalanceLookup::collapseRatio)
+                .description("Balance lookups answered per balance query")
+                .register(meterRegistry);
+    }
+
+    public UserBalanceDTO lookup(String userId) {
+        if (!collapse) {
+            return load(userId);
+        }
+        CompletableFuture<UserBalanceDTO> mine = new CompletableFuture<>();
+        CompletableFuture<UserBalanceDTO> running = inFlight.putIfAbsent(userId, mine);
+        if (running != null) {
+            collapsed.increment();
+            return await(running);
+        }
+        try {
+            UserBalanceDTO balance = load(userId);
+            mine.complete(balance);
+            return balance;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(userId, mine);
+        }
+    }
+
+    private UserBalanceDTO load(String userId) {
+        WalletUser user = walletUserService.getUser(userId);
+        List<String> accounts = new ArrayList<>();
+        if (shardedAccounts.isSharded(user)) {
+            accounts.addAll(shardedAccounts.shardsOf(user.getWalletAccNo()));
+        }
+        accounts.add(user.getWalletAccNo());
+
+        BigDecimal balance;
+        if (batchWindow.isZero() || batchWindow.isNegative()) {
+            queried.increment();
+            queries.increment();
+            balance = accounts.size() == 1 ? walletBalanceRepository.checkBalance(user.getWalletAccNo())
+                    : walletBalanceRepository.sumBalances(accounts);
+        } else {
+            batched.increment();
+            balance = inBatch(accounts);
+        }
+        return new UserBalanceDTO(user.getUserId(), user.getWalletAccNo(), balance, user.getCurrency());
+    }
+
+    /**
+     * Sum of the accounts' balances, read together with the other lookups of
+     * the batch open at the moment. The first lookup of a batch waits for the
+     * window to pass (or the batch to fill) and runs the query for all of them.
+     */
+    private BigDecimal inBatch(List<String> accounts) {
+        Batch batch;
+        CompletableFuture<BigDecimal> balance;
+        boolean leader = false;
+        synchronized (batchLock) {
+            if (openBatch == null) {
+                openBatch = new Batch();
+                leader = true;
+            }
+            batch = openBatch;
+            // without collapsing the same user can be looked up twice in one batch
+            balance = batch.lookups.computeIfAbsent(accounts, key -> new CompletableFuture<>());
+            if (batch.lookups.size() >= maxBatchSize) {
+                openBatch = null;
+                batch.full.countDown();
+            }
+        }
+        if (leader) {
+            run(batch);
+        }
+        return await(balance);
+    }
+
+    private void run(Batch batch) {
+        try {
+            batch.full.await(batchWindow.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (batchLock) {
+            if (openBatch == batch) {
+                openBatch = null;
+            }
+        }
+        try {
+            List<String> accounts = batch.lookups.keySet().stream().flatMap(List::stream).distinct().toList();
+            queries.increment();
+            Map<String, BigDecimal> balances = new HashMap<>();
+            for (WalletBalance row : walletBalanceRepository.findByWalletAccNoIn(accounts)) {
+                balances.put(row.getWalletAccNo(), row.getBalance());
+            }
+            batch.lookups.forEach((lookup, future) -> future.complete(lookup.stream()
+                    .map(account -> balances.getOrDefault(account, BigDecimal.ZERO))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add)));
+        } catch (RuntimeException e) {
+            batch.lookups.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private double collapseRatio() {
+        double count = queries.count();
+        return count == 0 ? 0 : (queried.count() + collapsed.count() + batched.count()) / count;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Batch {
+
+        // accounts of each user in the batch; different users never share accounts
+        private final Map<List<String>, CompletableFuture<BigDecimal>> lookups = new LinkedHashMap<>();
+
+        private final CountDownLatch full = new CountDownLatch(1);
+    }
+}
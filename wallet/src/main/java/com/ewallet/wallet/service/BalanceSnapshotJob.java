@@ -0,0 +1,104 @@
+package com.ewallet.wallet.service;
+
+import com.ewallet.wallet.dto.BalanceMismatchDTO;
+import com.ewallet.wallet.entity.WalletBalance;
+import com.ewallet.wallet.repository.WalletBalanceRepository;
+import com.ewallet.wallet.repository.WalletRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Rebuilds and verifies {@link WalletBalance} snapshots against the wallet journal.
+ */
+@Slf4j
+@Component
+public class BalanceSnapshotJob {
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private WalletBalanceRepository walletBalanceRepository;
+
+    @Autowired
+    private BalanceCheckpointJob balanceCheckpointJob;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${wallet.balance.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissingSnapshots() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        List<String> accounts = walletRepository.findAccountsWithoutSnapshot();
+        accounts.forEach(this::rebuild);
+        if (!accounts.isEmpty()) {
+            log.info("Backfilled balance snapshots for {} wallet accounts", accounts.size());
+        }
+    }
+
+    @Scheduled(cron = "${wallet.balance.verify-cron:-}")
+    public void scheduledVerify() {
+        List<BalanceMismatchDTO> mismatches = verify();
+        if (mismatches.isEmpty()) {
+            log.info("Balance snapshots verified against journal");
+        } else {
+            mismatches.forEach(m -> log.error("Balance snapshot mismatch for {}: snapshot {} journal {}",
+                    m.getWalletAccNo(), m.getSnapshotBalance(), m.getJournalBalance()));
+        }
+    }
+
+    public List<BalanceMismatchDTO> verify() {
+        return walletBalanceRepository.findMismatches();
+    }
+
+    /**
+     * Recompute one account's snapshot from its journal. The snapshot row is
+     * locked first, so concurrent credits and debits wait for the rebuild.
+     */
+    public BigDecimal rebuild(String walletAccNo) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            walletBalanceRepository.createIfAbsent(walletAccNo, BigDecimal.ZERO, now);
+            WalletBalance snapshot = walletBalanceRepository.findForUpdate(walletAccNo).orElseThrow();
+            BigDecimal journalBalance = balanceCheckpointJob.journalBalance(walletAccNo);
+            if (snapshot.getBalance().compareTo(journalBalance) != 0) {
+                log.warn("Rebuilding balance snapshot for {}: {} -> {}", walletAccNo, snapshot.getBalance(), journalBalance);
+                snapshot.setBalance(journalBalance);
+                snapshot.setUpdatedTime(now);
+            }
+            return journalBalance;
+        });
+    }
+
+    /**
+     * Create the account's snapshot if it has none, at the balance of its
+     * journal. Accounts that predate snapshots can be written to before the
+     * startup backfill reaches them, and must not start over from zero.
+     */
+    public void createIfAbsent(String walletAccNo, LocalDateTime now) {
+        if (!walletBalanceRepository.existsById(walletAccNo)) {
+            walletBalanceRepository.createIfAbsent(walletAccNo, balanceCheckpointJob.journalBalance(walletAccNo), now);
+        }
+    }
+
+    public int rebuildAll() {
+        List<String> accounts = walletRepository.findAllAccounts();
+        accounts.forEach(this::rebuild);
+        return accounts.size();
+    }
+}
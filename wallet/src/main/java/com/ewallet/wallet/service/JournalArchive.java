@@ -0,0 +1,239 @@
+package com.ewallet.wallet.service;
+
+import com.ewallet.archive.ColumnType;
+import com.ewallet.archive.SegmentSchema;
+import com.ewallet.archive.SegmentStore;
+import com.ewallet.archive.SegmentWriter;
+import com.ewallet.wallet.entity.Wallet;
+import com.ewallet.wallet.entity.WalletArchiveSegment;
+import com.ewallet.wallet.repository.WalletArchiveSegmentRepository;
+import com.ewallet.wallet.repository.WalletBalanceCheckpointRepository;
+import com.ewallet.wallet.repository.WalletRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static com.ewallet.archive.SegmentSchema.column;
+
+/**
+ * Moves journal rows older than {@code wallet.archive.retention} out of the
+ * {@code wallet} table into compressed segment files, one per
+ * {@code segment-span} window, sorted by (account, created time, transaction id)
+ * so an account's archived rows are read with one seek per segment. Archived
+ * rows stay in their accounts' balance checkpoints, which are brought up to the
+ * window's end before its rows are deleted.
+ * <p>
+ * Segments are written to local disk: run the archive on one instance, and
+ * give every instance that serves transaction history the same directory.
+ */
+@Slf4j
+@Component
+public class JournalArchive {
+
+    private static final SegmentSchema SCHEMA = SegmentSchema.of(3,
+            column("wallet_acc_no", ColumnType.STRING),
+            column("created_time", ColumnType.TIMESTAMP),
+            column("transaction_id", ColumnType.LONG),
+            column("tran_type", ColumnType.STRING),
+            column("amount", ColumnType.DECIMAL),
+            column("posting_reference", ColumnType.STRING));
+
+    private static final DateTimeFormatter SEGMENT_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private WalletArchiveSegmentRepository segmentRepository;
+
+    @Autowired
+    private WalletBalanceCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private BalanceCheckpointJob balanceCheckpointJob;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Value("${wallet.archive.dir:var/archive/wallet}")
+    private Path directory;
+
+    @Value("${wallet.archive.retention:365d}")
+    private Duration retention;
+
+    @Value("${wallet.archive.segment-span:7d}")
+    private Duration segmentSpan;
+
+    @Value("${wallet.archive.block-rows:4096}")
+    private int blockRows;
+
+    private SegmentStore store;
+
+    @PostConstruct
+    void open() throws IOException {
+        store = new SegmentStore(directory);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        store.close();
+    }
+
+    @Scheduled(cron = "${wallet.archive.cron:-}")
+    public void scheduledArchive() {
+        List<WalletArchiveSegment> segments = archive();
+        if (!segments.isEmpty()) {
+            log.info("Archived {} journal rows into {} segments",
+                    segments.stream().mapToLong(WalletArchiveSegment::getRowCount).sum(), segments.size());
+        }
+    }
+
+    /**
+     * Archive every full window older than the retention. Returns the segments written.
+     */
+    public List<WalletArchiveSegment> archive() {
+        LocalDateTime horizon = LocalDateTime.now().minus(retention);
+        LocalDateTime from = segmentRepository.findArchivedUntil();
+        if (from == null) {
+            LocalDateTime oldest = walletRepository.findOldestCreatedTime();
+            if (oldest == null) {
+                return List.of();
+            }
+            from = oldest.truncatedTo(ChronoUnit.DAYS);
+        }
+        List<WalletArchiveSegment> written = new ArrayList<>();
+        while (!from.plus(segmentSpan).isAfter(horizon)) {
+            LocalDateTime until = from.plus(segmentSpan);
+            written.add(archive(from, until));
+            from = until;
+        }
+        return written;
+    }
+
+    /**
+     * Archived rows of the account after the given position (or from its first
+     * row when {@code afterTime} is null) in history order, at most {@code limit}.
+     */
+    public List<Wallet> page(String walletAccNo, LocalDateTime afterTime, Long afterTransactionId, int limit) {
+        List<WalletArchiveSegment> segments = afterTime == null ? segmentRepository.findAllByOrderByCoveredFromAsc()
+                : segmentRepository.findByCoveredUntilGreaterThanOrderByCoveredFromAsc(afterTime);
+        List<Wallet> page = new ArrayList<>(Math.min(limit, 1000));
+        for (WalletArchiveSegment segment : segments) {
+            if (segment.getRowCount() == 0) {
+                continue;
+            }
+            Object[] from = afterTime == null ? new Object[]{walletAccNo}
+                    : new Object[]{walletAccNo, toInstant(afterTime), afterTransactionId};
+            try (Stream<Object[]> rows = store.reader(segment.getName()).scan(from)) {
+                rows.takeWhile(row -> walletAccNo.equals(row[0]))
+                        .filter(row -> afterTime == null || !(row[1].equals(from[1]) && row[2].equals(from[2])))
+                        .limit(limit - page.size())
+                        .forEach(row -> page.add(toWallet(row)));
+            }
+            if (page.size() == limit) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Every archived row of the account, oldest first.
+     */
+    public Stream<Wallet> stream(String walletAccNo) {
+        return segmentRepository.findAllByOrderByCoveredFromAsc().stream()
+                .filter(segment -> segment.getRowCount() > 0)
+                .flatMap(segment -> store.reader(segment.getName()).scan(walletAccNo)
+                        .takeWhile(row -> walletAccNo.equals(row[0])))
+                .map(JournalArchive::toWallet);
+    }
+
+    private WalletArchiveSegment archive(LocalDateTime from, LocalDateTime until) {
+        for (String walletAccNo : walletRepository.findAccountsNotCheckpointedUntil(until)) {
+            if (balanceCheckpointJob.checkpoint(walletAccNo).getCoveredUntil().isBefore(until)) {
+                throw new IllegalStateException("Balance checkpoint of " + walletAccNo + " does not reach " + until
+                        + ", is wallet.archive.retention shorter than wallet.checkpoint.settle-after?");
+            }
+        }
+
+        String name = "wallet-" + SEGMENT_TIME.format(from) + "-" + SEGMENT_TIME.format(until) + ".seg";
+        Map<String, BigDecimal> archivedBalances = new TreeMap<>();
+        long rows;
+        long size;
+        try (SegmentWriter writer = store.create(name, SCHEMA, blockRows)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Wallet> journal = walletRepository.streamCreatedBetween(from, until)) {
+                    for (Wallet wallet : (Iterable<Wallet>) journal::iterator) {
+                        writer.append(wallet.getWalletAccNo(), toInstant(wallet.getCreatedTime()), wallet.getTransactionId(),
+                                wallet.getTranType(), wallet.getAmount(), wallet.getPostingReference());
+                        BigDecimal signed = "D".equals(wallet.getTranType()) ? wallet.getAmount().negate() : wallet.getAmount();
+                        archivedBalances.merge(wallet.getWalletAccNo(), signed, BigDecimal::add);
+                        entityManager.detach(wallet);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            rows = writer.rows();
+            size = writer.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write archive segment " + name, e);
+        }
+
+        try {
+            WalletArchiveSegment segment = new WalletArchiveSegment(name, from, until, rows, size, LocalDateTime.now());
+            return transactionTemplate.execute(status -> {
+                int deleted = walletRepository.deleteCreatedBetween(from, until);
+                if (deleted != rows) {
+                    throw new IllegalStateException("Journal rows in " + name + " changed while archiving: wrote " + rows
+                            + ", deleting " + deleted);
+                }
+                archivedBalances.forEach(checkpointRepository::addArchivedBalance);
+                log.debug("Archived {} journal rows of {} accounts into {} ({} bytes)", rows, archivedBalances.size(),
+                        name, size);
+                return segmentRepository.save(segment);
+            });
+        } catch (RuntimeException e) {
+            try {
+                store.delete(name);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    private static Wallet toWallet(Object[] row) {
+        return new Wallet((Long) row[2], (String) row[0], (String) row[3], (BigDecimal) row[4],
+                LocalDateTime.ofInstant((Instant) row[1], ZoneOffset.UTC), (String) row[5]);
+    }
+
+    private static Instant toInstant(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,103 @@
+package com.ewallet.wallet.service;
+
+import com.ewallet.wallet.entity.Wallet;
+import com.ewallet.wallet.entity.WalletBalance;
+import com.ewallet.wallet.entity.WalletUser;
+import com.ewallet.wallet.repository.WalletBalanceRepository;
+import com.ewallet.wallet.repository.WalletRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves the balances of sharded sub-accounts into their master account,
+ * journaling the transfer on both sides so every account's snapshot still
+ * equals its journal. Each sub-account is swept in its own short transaction.
+ * A negative sub-account is only swept once the master can cover it, so the
+ * sweep never takes the master below zero.
+ */
+@Slf4j
+@Component
+public class ShardedAccountSweeper {
+
+    @Autowired
+    private ShardedAccounts shardedAccounts;
+
+    @Autowired
+    private WalletUserService walletUserService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private WalletBalanceRepository walletBalanceRepository;
+
+    @Autowired
+    private BalanceSnapshotJob balanceSnapshotJob;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Scheduled(fixedDelayString = "${wallet.sharded-accounts.sweep-interval-ms:5000}")
+    public void sweepAll() {
+        for (String userId : shardedAccounts.userIds()) {
+            WalletUser user;
+            try {
+                user = walletUserService.getUser(userId);
+            } catch (RuntimeException e) {
+                log.debug("Sharded user {} does not exist yet", userId);
+                continue;
+            }
+            sweep(user.getWalletAccNo());
+        }
+    }
+
+    /**
+     * Sweep every sub-account of the account. Returns the total amount moved.
+     */
+    public BigDecimal sweep(String walletAccNo) {
+        BigDecimal swept = BigDecimal.ZERO;
+        for (String shard : shardedAccounts.shardsOf(walletAccNo)) {
+            swept = swept.add(transactionTemplate.execute(status -> sweepShard(walletAccNo, shard)));
+        }
+        if (swept.signum() != 0) {
+            log.debug("Swept {} into {}", swept, walletAccNo);
+        }
+        return swept;
+    }
+
+    private BigDecimal sweepShard(String walletAccNo, String shard) {
+        if (walletBalanceRepository.checkBalance(shard).signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        // master before sub-account, the same order postBatch locks them in
+        balanceSnapshotJob.createIfAbsent(walletAccNo, now);
+        WalletBalance master = walletBalanceRepository.findForUpdate(walletAccNo).orElseThrow();
+        WalletBalance source = walletBalanceRepository.findForUpdate(shard).orElseThrow();
+
+        BigDecimal amount = source.getBalance();
+        // a reversed credit can leave a sub-account negative, which sweeps the other way,
+        // but never further than the master can cover; the shard waits for the next sweep
+        if (master.getBalance().add(amount).signum() < 0) {
+            log.warn("Sub-account {} is {} and {} cannot cover it, not swept", shard, amount, walletAccNo);
+            return BigDecimal.ZERO;
+        }
+        source.setBalance(BigDecimal.ZERO);
+        source.setUpdatedTime(now);
+        master.setBalance(master.getBalance().add(amount));
+        master.setUpdatedTime(now);
+
+        boolean positive = amount.signum() > 0;
+        walletRepository.batchInsert(List.of(
+                new Wallet(shard, positive ? "D" : "C", amount.abs(), now),
+                new Wallet(walletAccNo, positive ? "C" : "D", amount.abs(), now)));
+        return amount;
+    }
+}
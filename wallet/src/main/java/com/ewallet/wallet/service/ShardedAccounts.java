@@ -0,0 +1,66 @@
+package com.ewallet.wallet.service;
+
+import com.ewallet.wallet.entity.WalletUser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accounts credited by (nearly) every batch, such as the payment fee account.
+ * Their credits are spread round-robin over sub-accounts named
+ * {@code <walletAccNo>#<shard>}, each with its own balance row, so concurrent
+ * batches do not queue on one row lock. {@link ShardedAccountSweeper} rolls the
+ * sub-accounts up into the account itself.
+ */
+@Component
+public class ShardedAccounts {
+
+    private static final char SEPARATOR = '#';
+
+    private final Set<String> userIds;
+
+    private final int shards;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ShardedAccounts(@Value("${wallet.sharded-accounts.user-ids:}") Set<String> userIds,
+                           @Value("${wallet.sharded-accounts.shards:8}") int shards) {
+        this.userIds = Set.copyOf(userIds);
+        this.shards = shards;
+    }
+
+    public Set<String> userIds() {
+        return userIds;
+    }
+
+    public boolean isSharded(WalletUser user) {
+        return userIds.contains(user.getUserId());
+    }
+
+    /**
+     * Account a credit to the user is booked on: the next sub-account for
+     * sharded users, the user's own account otherwise.
+     */
+    public String creditAccount(WalletUser user) {
+        if (!isSharded(user)) {
+            return user.getWalletAccNo();
+        }
+        return shard(user.getWalletAccNo(), Math.floorMod(next.getAndIncrement(), shards));
+    }
+
+    public List<String> shardsOf(String walletAccNo) {
+        List<String> accounts = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            accounts.add(shard(walletAccNo, shard));
+        }
+        return accounts;
+    }
+
+    private static String shard(String walletAccNo, int shard) {
+        return walletAccNo + SEPARATOR + shard;
+    }
+}
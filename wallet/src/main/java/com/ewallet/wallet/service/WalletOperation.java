@@ -0,0 +1,20 @@
+package com.ewallet.wallet.service;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Times a wallet operation as wallet.operation{operation, outcome}, see
+ * {@link WalletOperationTimer}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface WalletOperation {
+
+    /**
+     * The operation tag, e.g. credit or post_batch.
+     */
+    String value();
+}
@@ -0,0 +1,58 @@
+package com.ewallet.wallet.service;
+
+import com.ewallet.wallet.exception.InsufficientBalanceException;
+import com.ewallet.wallet.exception.PostingCancelledException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times methods annotated with {@link WalletOperation} as
+ * wallet.operation{operation, outcome}; outcome is success, insufficient_funds,
+ * invalid_request, cancelled or error. Ordered ahead of the transaction advice,
+ * so the timing includes the commit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WalletOperationTimer {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("@annotation(com.ewallet.wallet.service.WalletOperation)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        WalletOperation operation = ((MethodSignature) joinPoint.getSignature()).getMethod()
+                .getAnnotation(WalletOperation.class);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            outcome = outcome(ex);
+            throw ex;
+        } finally {
+            sample.stop(meterRegistry.timer("wallet.operation", "operation", operation.value(), "outcome", outcome));
+        }
+    }
+
+    private static String outcome(Throwable ex) {
+        if (ex instanceof InsufficientBalanceException) {
+            return "insufficient_funds";
+        }
+        if (ex instanceof IllegalArgumentException) {
+            return "invalid_request";
+        }
+        if (ex instanceof PostingCancelledException) {
+            return "cancelled";
+        }
+        return "error";
+    }
+}
@@ -0,0 +1,87 @@
+package com.ewallet.wallet.service;
+
+import com.ewallet.ratelimit.RateLimitExceededException;
+import com.ewallet.ratelimit.RateLimitTier;
+import com.ewallet.ratelimit.RateLimiter;
+import com.ewallet.wallet.config.RateLimitProperties;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the per-user wallet endpoints by the tier each user is assigned in
+ * {@link RateLimitProperties}.
+ */
+@Component
+public class WalletRateLimiter {
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    private final Map<String, RateLimitTier> tiers = new LinkedHashMap<>();
+
+    private final Map<String, RateLimitTier> userTiers = new HashMap<>();
+
+    private RateLimitTier defaultTier;
+
+    @PostConstruct
+    void resolveTiers() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        tiers.putAll(properties.createTiers());
+        defaultTier = tier(properties.getTier());
+        properties.getUsers().forEach((userId, tier) -> userTiers.put(userId, tier(tier)));
+    }
+
+    /**
+     * Take a permit for the user, or throw {@link RateLimitExceededException}
+     * when it has none left.
+     */
+    public void check(String userId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long waitNanos = rateLimiter.tryAcquire(String.valueOf(userId), tierOf(userId));
+        if (waitNanos > 0) {
+            throw new RateLimitExceededException("Too many requests for user " + userId,
+                    TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public Collection<RateLimitTier> tiers() {
+        return tiers.values();
+    }
+
+    /**
+     * Permits the user could take now, null when rate limits are disabled.
+     */
+    public Integer available(String userId) {
+        return properties.isEnabled() ? rateLimiter.available(userId, tierOf(userId)) : null;
+    }
+
+    private RateLimitTier tierOf(String userId) {
+        return userTiers.getOrDefault(userId, defaultTier);
+    }
+
+    private RateLimitTier tier(String name) {
+        RateLimitTier tier = tiers.get(name);
+        if (tier == null) {
+            throw new IllegalStateException("Unknown rate limit tier '" + name + "', add it under wallet.rate-limit.tiers");
+        }
+        return tier;
+    }
+}
@@ -1,69 +1,256 @@
 package com.ewallet.wallet.service;
 
+import com.ewallet.wallet.dto.BatchPostingRequestDTO;
+import com.ewallet.wallet.dto.PostingLegDTO;
+import com.ewallet.wallet.dto.TransactionCursor;
+import com.ewallet.wallet.dto.TransactionPageDTO;
 import com.ewallet.wallet.dto.UserBalanceDTO;
 import com.ewallet.wallet.dto.WalletRequestDTO;
 import com.ewallet.wallet.entity.Wallet;
+import com.ewallet.wallet.entity.WalletPosting;
 import com.ewallet.wallet.entity.WalletUser;
 import com.ewallet.wallet.exception.InsufficientBalanceException;
-import com.ewallet.wallet.repository.UserRepository;
+import com.ewallet.wallet.exception.PostingCancelledException;
+import com.ewallet.wallet.repository.WalletBalanceRepository;
+import com.ewallet.wallet.repository.WalletPostingRepository;
 import com.ewallet.wallet.repository.WalletRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 @Slf4j
 @Service
 public class WalletService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     @Autowired
     private WalletRepository walletRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private WalletBalanceRepository walletBalanceRepository;
 
-    public UserBalanceDTO getUserWithBalance(String userId) {
+    @Autowired
+    private WalletUserService walletUserService;
+
+    @Autowired
+    private WalletPostingRepository walletPostingRepository;
+
+    @Autowired
+    private ShardedAccounts shardedAccounts;
 
-        WalletUser user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
+    @Autowired
+    private JournalArchive journalArchive;
 
-        BigDecimal balance = walletRepository.checkBalance(user.getWalletAccNo());
+    @Autowired
+    private BalanceLookup balanceLookup;
 
-        return new UserBalanceDTO(user.getUserId(), user.getWalletAccNo(), balance, user.getCurrency());
+    @Autowired
+    private BalanceSnapshotJob balanceSnapshotJob;
 
+    @WalletOperation("check_balance")
+    public UserBalanceDTO getUserWithBalance(String userId) {
+        return balanceLookup.lookup(userId);
     }
 
-    public List<Wallet> viewTransactions(String walletAccNo) {
-        return walletRepository.findByWalletAccNoOrderByCreatedTimeAsc(walletAccNo);
+    /**
+     * One page of an account's transactions in (createdTime, transactionId)
+     * order, starting after the given cursor or at the beginning when it is null.
+     * Archived transactions come first, then those still in the journal table.
+     */
+    @WalletOperation("view_transactions")
+    public TransactionPageDTO viewTransactions(String walletAccNo, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        TransactionCursor after = cursor == null ? null : TransactionCursor.decode(cursor);
+        List<Wallet> transactions = new ArrayList<>(journalArchive.page(walletAccNo,
+                after == null ? null : after.getCreatedTime(), after == null ? null : after.getTransactionId(),
+                pageSize));
+        if (!transactions.isEmpty()) {
+            after = TransactionCursor.after(transactions.get(transactions.size() - 1));
+        }
+        if (transactions.size() < pageSize) {
+            Limit rest = Limit.of(pageSize - transactions.size());
+            transactions.addAll(after == null
+                    ? walletRepository.findByWalletAccNoOrderByCreatedTimeAscTransactionIdAsc(walletAccNo, rest)
+                    : walletRepository.findPageAfter(walletAccNo, after.getCreatedTime(), after.getTransactionId(), rest));
+        }
+
+        String nextCursor = transactions.size() < pageSize ? null
+                : TransactionCursor.after(transactions.get(transactions.size() - 1)).encode();
+        return new TransactionPageDTO(transactions, nextCursor);
     }
 
+    @Transactional
+    @WalletOperation("credit")
     public void credit(WalletRequestDTO request) {
+        WalletUser user = walletUserService.getUser(request.getUserId());
 
-        WalletUser user = userRepository.findById(request.getUserId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        LocalDateTime now = LocalDateTime.now();
 
-        Wallet wallet = new Wallet(user.getWalletAccNo(), "C", request.getAmount(), LocalDateTime.now());
+        String account = shardedAccounts.creditAccount(user);
 
-        walletRepository.save(wallet);
+        applyToBalance(account, request.getAmount(), now);
+
+        Wallet wallet = new Wallet(account, "C", request.getAmount(), now);
 
+        walletRepository.save(wallet);
     }
 
+    @Transactional
+    @WalletOperation("debit")
     public void debit(WalletRequestDTO request) {
+        WalletUser user = walletUserService.getUser(request.getUserId());
 
-        WalletUser user = userRepository.findById(request.getUserId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        LocalDateTime now = LocalDateTime.now();
 
-        BigDecimal balance = walletRepository.checkBalance(user.getWalletAccNo());
-
-        if (balance.compareTo(request.getAmount()) < 0) {
+        if (!debitIfSufficient(user.getWalletAccNo(), request.getAmount(), now)) {
             throw new InsufficientBalanceException("Insufficient balance");
         }
 
-        Wallet wallet = new Wallet(user.getWalletAccNo(), "D", request.getAmount(), LocalDateTime.now());
+        Wallet wallet = new Wallet(user.getWalletAccNo(), "D", request.getAmount(), now);
 
         walletRepository.save(wallet);
+    }
+
+    /**
+     * Apply all legs of a batch atomically: either every debit and credit is
+     * posted or none is. Users are resolved from the user cache, balance rows are
+     * updated in account order so concurrent batches cannot deadlock, and the
+     * journal rows go out as one JDBC batch. Credits to sharded accounts land on
+     * one of their sub-accounts; debits always come from the account itself. A
+     * batch with a reference is applied at most once: repeating it is a no-op,
+     * and it is refused once the reference has been reversed or cancelled.
+     */
+    @Transactional
+    @WalletOperation("post_batch")
+    public void postBatch(BatchPostingRequestDTO request) {
+        List<PostingLegDTO> legs = request.getLegs();
+        if (legs == null || legs.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one leg");
+        }
+        for (PostingLegDTO leg : legs) {
+            if (!"C".equals(leg.getTranType()) && !"D".equals(leg.getTranType())) {
+                throw new IllegalArgumentException("Invalid tranType: " + leg.getTranType());
+            }
+            if (leg.getAmount() == null || leg.getAmount().signum() < 0) {
+                throw new IllegalArgumentException("Invalid amount: " + leg.getAmount());
+            }
+        }
 
+        LocalDateTime now = LocalDateTime.now();
+        String reference = request.getReference();
+        if (reference != null && !claimPosting(reference, now)) {
+            log.info("Batch {} was already posted", reference);
+            return;
+        }
+
+        List<Wallet> journal = new ArrayList<>(legs.size());
+        for (PostingLegDTO leg : legs) {
+            WalletUser user = walletUserService.getUser(leg.getUserId());
+            String account = "C".equals(leg.getTranType()) ? shardedAccounts.creditAccount(user) : user.getWalletAccNo();
+            Wallet wallet = new Wallet(account, leg.getTranType(), leg.getAmount(), now);
+            wallet.setPostingReference(reference);
+            journal.add(wallet);
+        }
+
+        journal.stream()
+                .sorted(Comparator.comparing(Wallet::getWalletAccNo))
+                .forEach(wallet -> {
+                    if ("D".equals(wallet.getTranType())) {
+                        if (!debitIfSufficient(wallet.getWalletAccNo(), wallet.getAmount(), now)) {
+                            throw new InsufficientBalanceException("Insufficient balance");
+                        }
+                    } else {
+                        applyToBalance(wallet.getWalletAccNo(), wallet.getAmount(), now);
+                    }
+                });
+
+        walletRepository.batchInsert(journal);
+    }
+
+    /**
+     * Undo the batch posted under the reference by journaling the opposite of
+     * each of its legs. Reversing is idempotent, and reversing a reference that
+     * was never posted cancels it so the batch is refused if it arrives later.
+     * Reversed credits are taken back even if that leaves the account negative.
+     */
+    @Transactional
+    @WalletOperation("reverse_batch")
+    public void reverseBatch(String reference) {
+        LocalDateTime now = LocalDateTime.now();
+        if (walletPostingRepository.claim(reference, WalletPosting.CANCELLED, now) == 1) {
+            log.info("Batch {} cancelled before it was posted", reference);
+            return;
+        }
+        WalletPosting posting = walletPostingRepository.findForUpdate(reference).orElseThrow();
+        if (!WalletPosting.POSTED.equals(posting.getStatus())) {
+            return;
+        }
+
+        List<Wallet> reversal = new ArrayList<>();
+        for (Wallet original : walletRepository.findByPostingReference(reference)) {
+            Wallet wallet = new Wallet(original.getWalletAccNo(), "D".equals(original.getTranType()) ? "C" : "D",
+                    original.getAmount(), now);
+            wallet.setPostingReference(reference);
+            reversal.add(wallet);
+        }
+
+        reversal.stream()
+                .sorted(Comparator.comparing(Wallet::getWalletAccNo))
+                .forEach(wallet -> applyToBalance(wallet.getWalletAccNo(),
+                        "C".equals(wallet.getTranType()) ? wallet.getAmount() : wallet.getAmount().negate(), now));
+
+        walletRepository.batchInsert(reversal);
+        posting.setStatus(WalletPosting.REVERSED);
+        posting.setUpdatedTime(now);
+        log.info("Batch {} reversed ({} legs)", reference, reversal.size());
+    }
+
+    /**
+     * Claim a batch reference for posting. Returns false when the batch was
+     * already posted under it.
+     */
+    private boolean claimPosting(String reference, LocalDateTime now) {
+        if (walletPostingRepository.claim(reference, WalletPosting.POSTED, now) == 1) {
+            return true;
+        }
+        WalletPosting posting = walletPostingRepository.findForUpdate(reference).orElseThrow();
+        if (WalletPosting.POSTED.equals(posting.getStatus())) {
+            return false;
+        }
+        throw new PostingCancelledException("Batch " + reference + " was " + posting.getStatus().toLowerCase());
+    }
+
+    /**
+     * Add a signed amount to the account's balance snapshot, creating the
+     * snapshot on the account's first transaction.
+     */
+    private void applyToBalance(String walletAccNo, BigDecimal delta, LocalDateTime now) {
+        if (walletBalanceRepository.applyDelta(walletAccNo, delta, now) == 0) {
+            balanceSnapshotJob.createIfAbsent(walletAccNo, now);
+            walletBalanceRepository.applyDelta(walletAccNo, delta, now);
+        }
+    }
+
+    /**
+     * Take the amount from the account's balance snapshot if it covers it. An
+     * account without a snapshot gets one from its journal first.
+     */
+    private boolean debitIfSufficient(String walletAccNo, BigDecimal amount, LocalDateTime now) {
+        if (walletBalanceRepository.debitIfSufficient(walletAccNo, amount, now) == 1) {
+            return true;
+        }
+        // retry even if a concurrent transaction created the snapshot first
+        balanceSnapshotJob.createIfAbsent(walletAccNo, now);
+        return walletBalanceRepository.debitIfSufficient(walletAccNo, amount, now) == 1;
     }
 }
@@ -0,0 +1,27 @@
+package com.ewallet.wallet.service;
+
+import com.ewallet.wallet.entity.WalletUser;
+import com.ewallet.wallet.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Cached userId -> WalletUser lookups. Users change rarely, so every wallet
+ * operation reads them from the walletUsers cache (size and TTL bounded, see
+ * spring.cache.caffeine.spec) instead of the database. Entries are evicted by
+ * WalletUserCacheListener whenever a user is updated or deleted.
+ */
+@Service
+public class WalletUserService {
+
+    public static final String CACHE_NAME = "walletUsers";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Cacheable(cacheNames = CACHE_NAME)
+    public WalletUser getUser(String userId) {
+        return userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
@@ -0,0 +1,26 @@
+-- Baseline wallet schema. IF NOT EXISTS keeps this safe on databases that were
+-- created earlier by hibernate ddl-auto=update.
+
+CREATE TABLE IF NOT EXISTS wallet_user (
+    user_id       VARCHAR(255) NOT NULL,
+    name          VARCHAR(255) NOT NULL,
+    wallet_acc_no VARCHAR(255) NOT NULL UNIQUE,
+    currency      VARCHAR(255) NOT NULL,
+    PRIMARY KEY (user_id)
+);
+
+CREATE TABLE IF NOT EXISTS wallet (
+    transaction_id BIGSERIAL      NOT NULL,
+    wallet_acc_no  VARCHAR(255)   NOT NULL,
+    tran_type      VARCHAR(255)   NOT NULL,
+    amount         NUMERIC(15, 2) NOT NULL,
+    created_time   TIMESTAMP(6)   NOT NULL,
+    PRIMARY KEY (transaction_id)
+);
+
+CREATE TABLE IF NOT EXISTS wallet_balance (
+    wallet_acc_no VARCHAR(255)   NOT NULL,
+    balance       NUMERIC(15, 2) NOT NULL,
+    updated_time  TIMESTAMP(6)   NOT NULL,
+    PRIMARY KEY (wallet_acc_no)
+);
@@ -0,0 +1,27 @@
+-- wallet is a journal with many rows per account. Databases created by
+-- ddl-auto carry a UNIQUE constraint on wallet_acc_no that rejects every
+-- transaction after an account's first one, so drop it whatever its name.
+DO $$
+DECLARE
+    c RECORD;
+BEGIN
+    FOR c IN
+        SELECT con.conname
+        FROM pg_constraint con
+        JOIN pg_class tbl ON tbl.oid = con.conrelid
+        JOIN pg_attribute att ON att.attrelid = tbl.oid AND att.attnum = con.conkey[1]
+        WHERE tbl.relname = 'wallet'
+          AND con.contype = 'u'
+          AND array_length(con.conkey, 1) = 1
+          AND att.attname = 'wallet_acc_no'
+    LOOP
+        EXECUTE format('ALTER TABLE wallet DROP CONSTRAINT %I', c.conname);
+    END LOOP;
+END $$;
+
+-- Serves keyset pagination and streaming export (equality on the account,
+-- ordered by created_time, transaction_id) and, through the INCLUDE columns,
+-- index-only journal sums when balance snapshots are rebuilt or verified.
+CREATE INDEX IF NOT EXISTS idx_wallet_acc_created
+    ON wallet (wallet_acc_no, created_time, transaction_id)
+    INCLUDE (tran_type, amount);
@@ -0,0 +1,15 @@
+-- Referenced batch postings, so a batch is applied at most once and can be
+-- reversed by its reference (see WalletService#postBatch / #reverseBatch).
+CREATE TABLE IF NOT EXISTS wallet_posting (
+    reference    VARCHAR(255) NOT NULL,
+    status       VARCHAR(255) NOT NULL,
+    updated_time TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (reference)
+);
+
+ALTER TABLE wallet ADD COLUMN IF NOT EXISTS posting_reference VARCHAR(255);
+
+-- Only referenced batch rows are indexed; single credits and debits leave it null.
+CREATE INDEX IF NOT EXISTS idx_wallet_posting_reference
+    ON wallet (posting_reference)
+    WHERE posting_reference IS NOT NULL;
@@ -0,0 +1,3 @@
+-- Hibernate allocates journal ids in blocks of 50 (Wallet's @SequenceGenerator).
+-- The column keeps its nextval default for WalletRepository#batchInsert.
+ALTER SEQUENCE wallet_transaction_id_seq INCREMENT BY 50;
@@ -0,0 +1,13 @@
+-- Journal sums per account up to covered_until, maintained by BalanceCheckpointJob so
+-- verifying and rebuilding balance snapshots only reads the journal after them.
+CREATE TABLE IF NOT EXISTS wallet_balance_checkpoint (
+    wallet_acc_no   VARCHAR(255)   NOT NULL,
+    balance         NUMERIC(15, 2) NOT NULL,
+    covered_until   TIMESTAMP(6)   NOT NULL,
+    checkpoint_time TIMESTAMP(6)   NOT NULL,
+    next_due_time   TIMESTAMP(6)   NOT NULL,
+    PRIMARY KEY (wallet_acc_no)
+);
+
+CREATE INDEX IF NOT EXISTS idx_wallet_balance_checkpoint_due
+    ON wallet_balance_checkpoint (next_due_time);
@@ -0,0 +1,15 @@
+-- Journal rows older than wallet.archive.retention are moved to segment files, one per
+-- [covered_from, covered_until) window, see JournalArchive.
+CREATE TABLE IF NOT EXISTS wallet_archive_segment (
+    name          VARCHAR(255) NOT NULL,
+    covered_from  TIMESTAMP(6) NOT NULL,
+    covered_until TIMESTAMP(6) NOT NULL,
+    row_count     BIGINT       NOT NULL,
+    size_bytes    BIGINT       NOT NULL,
+    created_time  TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (name)
+);
+
+-- Part of a checkpoint's balance whose rows are archived, so the checkpoint can still be
+-- verified against the journal rows that remain.
+ALTER TABLE wallet_balance_checkpoint ADD COLUMN IF NOT EXISTS archived_balance NUMERIC(15, 2) NOT NULL DEFAULT 0;
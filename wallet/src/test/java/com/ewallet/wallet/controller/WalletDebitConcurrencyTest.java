@@ -0,0 +1,135 @@
+package com.ewallet.wallet.controller;
+
+import com.ewallet.wallet.dto.WalletRequestDTO;
+import com.ewallet.wallet.entity.WalletUser;
+import com.ewallet.wallet.repository.UserRepository;
+import com.ewallet.wallet.repository.WalletBalanceRepository;
+import com.ewallet.wallet.service.BalanceSnapshotJob;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires concurrent {@code /debit} calls at one account on PostgreSQL and
+ * checks the guarded UPDATE lets exactly as many through as the balance
+ * covers, for 1, 8 and 32 clients.
+ * <p>
+ * Throughput is logged for each client count but not asserted, since it
+ * depends on the machine: every debit commits on its own and queues on the
+ * same snapshot row.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "wallet.rate-limit.enabled=false",
+        "wallet.archive.dir=target/test-archive",
+        "spring.jpa.show-sql=false"})
+class WalletDebitConcurrencyTest {
+
+    private static final BigDecimal INITIAL = new BigDecimal("1000.00");
+
+    private static final BigDecimal AMOUNT = new BigDecimal("0.75");
+
+    private static final int REQUESTS = 2000;
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletBalanceRepository walletBalanceRepository;
+
+    @Autowired
+    private BalanceSnapshotJob balanceSnapshotJob;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @ParameterizedTest(name = "{0} clients")
+    @ValueSource(ints = {1, 8, 32})
+    void concurrentDebitsNeverOverdraw(int clientCount) throws Exception {
+        String userId = "stress-" + clientCount;
+        String walletAccNo = "ACC-STRESS-" + clientCount;
+        WalletUser user = new WalletUser();
+        user.setUserId(userId);
+        user.setName(userId);
+        user.setWalletAccNo(walletAccNo);
+        user.setCurrency("INR");
+        userRepository.save(user);
+        assertThat(restTemplate.postForEntity("/api/v1/credit", new WalletRequestDTO(userId, INITIAL), String.class)
+                .getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ExecutorService clients = Executors.newFixedThreadPool(clientCount);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<HttpStatus>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                results.add(clients.submit(() -> {
+                    start.await();
+                    ResponseEntity<String> response = restTemplate.postForEntity("/api/v1/debit",
+                            new WalletRequestDTO(userId, AMOUNT), String.class);
+                    return HttpStatus.valueOf(response.getStatusCode().value());
+                }));
+            }
+            long startedAt = System.nanoTime();
+            start.countDown();
+            int succeeded = 0;
+            int refused = 0;
+            for (Future<HttpStatus> result : results) {
+                HttpStatus status = result.get();
+                if (status == HttpStatus.OK) {
+                    succeeded++;
+                } else {
+                    assertThat(status).isEqualTo(HttpStatus.BAD_REQUEST);
+                    refused++;
+                }
+            }
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+            log.info("{} debits from {} clients in {} s: {} req/s", REQUESTS, clientCount,
+                    String.format("%.2f", seconds), String.format("%.0f", REQUESTS / seconds));
+
+            int covered = INITIAL.divideToIntegralValue(AMOUNT).intValueExact();
+            BigDecimal balance = walletBalanceRepository.checkBalance(walletAccNo);
+            assertThat(succeeded).isEqualTo(covered);
+            assertThat(refused).isEqualTo(REQUESTS - covered);
+            assertThat(balance).isGreaterThanOrEqualTo(BigDecimal.ZERO);
+            assertThat(balance).isEqualByComparingTo(INITIAL.subtract(AMOUNT.multiply(BigDecimal.valueOf(covered))));
+            assertThat(balanceSnapshotJob.verify()).isEmpty();
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+}